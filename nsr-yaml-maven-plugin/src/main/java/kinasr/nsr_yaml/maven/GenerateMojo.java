@@ -0,0 +1,115 @@
+package kinasr.nsr_yaml.maven;
+
+import kinasr.nsr_yaml.core.Environments;
+import kinasr.nsr_yaml.core.YAML;
+import kinasr.nsr_yaml.exception.YAMLFileException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates a Java class of constants for every configured YAML file, so the values can be read at runtime without
+ * parsing any YAML.
+ * <p>
+ * For a file `app-config.yaml` and the environments `local` and `production`, the goal generates `AppConfig`, with the
+ * overrides applied in the order of the configured environments as {@link YAML#read(String)} does when `NSR_ENV` is
+ * not set, then `AppConfigLocal` and `AppConfigProduction`, each with its environment taking precedence as it does
+ * when `NSR_ENV` is set to it.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateMojo extends AbstractMojo {
+
+    /**
+     * The YAML files to generate classes for.
+     */
+    @Parameter(required = true)
+    private List<File> files;
+
+    /**
+     * The package of the generated classes.
+     */
+    @Parameter(defaultValue = "nsr_yaml.generated")
+    private String packageName;
+
+    /**
+     * The environments to generate classes for, in the order of the `environments` of the configuration file.
+     */
+    @Parameter
+    private List<String> environments = List.of();
+
+    /**
+     * The directory of the generated sources, which is added to the compile source roots of the project.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/nsr-yaml", required = true)
+    private File outputDirectory;
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        var packageDirectory = outputDirectory.toPath().resolve(packageName.replace('.', File.separatorChar));
+
+        for (File file : files) {
+            var tree = read(file);
+            var baseName = SourceGenerator.className(file.getName().replaceFirst("\\.[^.]*$", ""));
+
+            write(packageDirectory, baseName, file, Environments.apply(tree, environments));
+            for (String environment : environments) {
+                var prioritized = Environments.prioritize(environment, environments);
+                write(packageDirectory, baseName + SourceGenerator.className(environment), file,
+                        Environments.apply(tree, prioritized));
+            }
+        }
+
+        project.addCompileSourceRoot(outputDirectory.getPath());
+    }
+
+    private static Map<?, ?> read(File file) throws MojoExecutionException {
+        Object tree;
+        try {
+            tree = YAML.read(file.getPath(), false).get().asObject();
+        } catch (YAMLFileException e) {
+            throw new MojoExecutionException("Can't read the YAML file [" + file + "]", e);
+        }
+
+        if (!(tree instanceof Map<?, ?> map)) {
+            throw new MojoExecutionException("The YAML file [" + file + "] must contain a map to generate a class");
+        }
+        return map;
+    }
+
+    /**
+     * Writes the source of a class, unless the existing file already has the same content, so the classes are not
+     * compiled again when the YAML files did not change.
+     */
+    private void write(Path packageDirectory, String className, File file, Object tree)
+            throws MojoExecutionException {
+        var target = packageDirectory.resolve(className + ".java");
+        try {
+            var source = SourceGenerator.generate(packageName, className, file.getName(), (Map<?, ?>) tree);
+            if (Files.exists(target) && Files.readString(target, StandardCharsets.UTF_8).equals(source)) {
+                return;
+            }
+
+            Files.createDirectories(packageDirectory);
+            Files.writeString(target, source, StandardCharsets.UTF_8);
+            getLog().info("Generated " + target + " from " + file);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Can't write the generated class [" + target + "]", e);
+        }
+    }
+}
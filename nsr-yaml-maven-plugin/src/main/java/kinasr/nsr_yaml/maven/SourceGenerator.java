@@ -0,0 +1,313 @@
+package kinasr.nsr_yaml.maven;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the Java source of a class holding the values of a YAML tree as constants.
+ * <p>
+ * Every scalar becomes a `public static final` constant named after its key in upper snake case, such as
+ * `DATE_PATTERN` for `date-pattern`, and every map becomes a nested class named after its key in Pascal case, so
+ * `database.url` is read as `AppConfig.Database.URL`. Lists become immutable lists, whose maps become immutable maps.
+ * Keys that still carry an environment suffix, such as `url@production`, are overrides of another environment and
+ * are left out.
+ * <p>
+ * Every type in the generated code is fully qualified, since a nested class named after a key, such as `String` for
+ * `string`, would hide the type of the same simple name.
+ */
+class SourceGenerator {
+    private static final String INDENT = "    ";
+
+    private final StringBuilder source = new StringBuilder();
+    private final String fileName;
+
+    private SourceGenerator(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Generates the source of a class holding the values of a tree.
+     *
+     * @param packageName the package of the class, or an empty string for the default package
+     * @param className   the simple name of the class
+     * @param fileName    the name of the YAML file, used in the comments and error messages
+     * @param tree        the tree of the YAML file
+     * @return the Java source of the class
+     * @throws IllegalArgumentException if the tree can't be represented as Java constants
+     */
+    protected static String generate(String packageName, String className, String fileName, Map<?, ?> tree) {
+        var generator = new SourceGenerator(fileName);
+        if (!packageName.isEmpty()) {
+            generator.source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        generator.source.append("/**\n * The values of ").append(fileName)
+                .append(", generated by nsr-yaml-maven-plugin. Do not edit.\n */\n");
+        generator.writeClass(className, tree, "", Set.of());
+        return generator.source.toString();
+    }
+
+    /**
+     * Converts a key or a file name into a class name in Pascal case, such as `AppConfig` for `app-config`.
+     *
+     * @param name the key or file name
+     * @return the class name
+     */
+    protected static String className(String name) {
+        var className = new StringBuilder();
+        for (String word : words(name)) {
+            className.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1).toLowerCase());
+        }
+        return identifier(className.toString(), name);
+    }
+
+    /**
+     * Converts a key into a constant name in upper snake case, such as `DATE_PATTERN` for `datePattern`.
+     *
+     * @param name the key
+     * @return the constant name
+     */
+    protected static String constantName(String name) {
+        return identifier(String.join("_", words(name)).toUpperCase(), name);
+    }
+
+    private void writeClass(String className, Map<?, ?> map, String indent, Set<String> enclosingClasses) {
+        var classIndent = indent + INDENT;
+        var nested = !indent.isEmpty();
+        source.append(indent).append(nested ? "public static final class " : "public final class ")
+                .append(className).append(" {\n")
+                .append(classIndent).append("private ").append(className).append("() {\n")
+                .append(classIndent).append("}\n");
+
+        var enclosing = new HashSet<>(enclosingClasses);
+        enclosing.add(className);
+        var names = new HashMap<String, String>();
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            var key = String.valueOf(entry.getKey());
+            if (key.contains("@")) {
+                continue;
+            }
+
+            source.append('\n');
+            if (entry.getValue() instanceof Map<?, ?> child) {
+                var name = className(key);
+                if (enclosing.contains(name)) {
+                    name = name + "Values";
+                }
+                reserve(names, name, key);
+                writeClass(name, child, classIndent, enclosing);
+            } else {
+                var name = constantName(key);
+                reserve(names, name, key);
+                source.append(classIndent).append("public static final ").append(type(entry.getValue()))
+                        .append(' ').append(name).append(" = ").append(literal(entry.getValue())).append(";\n");
+            }
+        }
+
+        source.append(indent).append("}\n");
+    }
+
+    private void reserve(Map<String, String> names, String name, String key) {
+        var previous = names.putIfAbsent(name, key);
+        if (previous != null) {
+            throw new IllegalArgumentException("The keys [" + previous + "] and [" + key + "] of " + fileName
+                    + " have the same Java name [" + name + "]");
+        }
+    }
+
+    private String type(Object value) {
+        if (value == null) {
+            return "java.lang.Object";
+        }
+        if (value instanceof List<?> list) {
+            return "java.util.List<" + elementType(list) + ">";
+        }
+        if (value instanceof Map<?, ?>) {
+            return "java.util.Map<java.lang.String, java.lang.Object>";
+        }
+        if (value instanceof String) {
+            return "java.lang.String";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        if (value instanceof Integer) {
+            return "int";
+        }
+        if (value instanceof Long) {
+            return "long";
+        }
+        if (value instanceof Double) {
+            return "double";
+        }
+        if (value instanceof BigInteger) {
+            return "java.math.BigInteger";
+        }
+        if (value instanceof Date) {
+            return "java.time.Instant";
+        }
+        throw unsupported(value);
+    }
+
+    private String elementType(List<?> list) {
+        String common = null;
+        for (Object item : list) {
+            var type = item == null ? "java.lang.Object" : boxed(type(item));
+            if (common == null) {
+                common = type;
+            } else if (!common.equals(type)) {
+                return "java.lang.Object";
+            }
+        }
+        return common == null ? "java.lang.Object" : common;
+    }
+
+    private static String boxed(String type) {
+        return switch (type) {
+            case "boolean" -> "java.lang.Boolean";
+            case "int" -> "java.lang.Integer";
+            case "long" -> "java.lang.Long";
+            case "double" -> "java.lang.Double";
+            default -> type.startsWith("java.util.List") ? "java.util.List<?>" : type;
+        };
+    }
+
+    private String literal(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof String string) {
+            return quote(string);
+        }
+        if (value instanceof Boolean || value instanceof Integer) {
+            return value.toString();
+        }
+        if (value instanceof Long number) {
+            return number + "L";
+        }
+        if (value instanceof Double number) {
+            return doubleLiteral(number);
+        }
+        if (value instanceof BigInteger number) {
+            return "new java.math.BigInteger(\"" + number + "\")";
+        }
+        if (value instanceof Date date) {
+            return "java.time.Instant.ofEpochMilli(" + date.getTime() + "L)";
+        }
+        if (value instanceof List<?> list) {
+            return listLiteral(list);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return mapLiteral(map);
+        }
+        throw unsupported(value);
+    }
+
+    private String listLiteral(List<?> list) {
+        var items = new ArrayList<String>();
+        var containsNull = false;
+        for (Object item : list) {
+            items.add(literal(item));
+            containsNull |= item == null;
+        }
+
+        if (containsNull) {
+            return "java.util.Collections.unmodifiableList(java.util.Arrays.asList(" + String.join(", ", items) + "))";
+        }
+        return "java.util.List.of(" + String.join(", ", items) + ")";
+    }
+
+    private String mapLiteral(Map<?, ?> map) {
+        var entries = new ArrayList<String>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            var key = String.valueOf(entry.getKey());
+            if (key.contains("@")) {
+                continue;
+            }
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("The key [" + key + "] of " + fileName
+                        + " is null inside a list, which an immutable map can't hold");
+            }
+            entries.add("java.util.Map.entry(" + quote(key) + ", " + literal(entry.getValue()) + ")");
+        }
+        return "java.util.Map.ofEntries(" + String.join(", ", entries) + ")";
+    }
+
+    private static String doubleLiteral(double number) {
+        if (Double.isNaN(number)) {
+            return "java.lang.Double.NaN";
+        }
+        if (Double.isInfinite(number)) {
+            return number > 0 ? "java.lang.Double.POSITIVE_INFINITY" : "java.lang.Double.NEGATIVE_INFINITY";
+        }
+        return Double.toString(number);
+    }
+
+    private static String quote(String string) {
+        var quoted = new StringBuilder("\"");
+        for (char c : string.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20 || c == 0x7F) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private IllegalArgumentException unsupported(Object value) {
+        return new IllegalArgumentException("Values of type [" + value.getClass().getName() + "] in " + fileName
+                + " can't be generated as Java constants");
+    }
+
+    /**
+     * Splits a name into words on the characters that are not letters or digits and on camel case boundaries.
+     */
+    private static List<String> words(String name) {
+        var words = new ArrayList<String>();
+        var word = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            var c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                addWord(words, word);
+                continue;
+            }
+            if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(name.charAt(i - 1))) {
+                addWord(words, word);
+            }
+            word.append(c);
+        }
+        addWord(words, word);
+        return words;
+    }
+
+    private static void addWord(List<String> words, StringBuilder word) {
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static String identifier(String identifier, String name) {
+        if (identifier.isEmpty()) {
+            throw new IllegalArgumentException("The key [" + name + "] has no letters or digits to name it in Java");
+        }
+        return Character.isDigit(identifier.charAt(0)) ? "_" + identifier : identifier;
+    }
+}
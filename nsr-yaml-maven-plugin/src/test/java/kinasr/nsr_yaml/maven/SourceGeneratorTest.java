@@ -0,0 +1,89 @@
+package kinasr.nsr_yaml.maven;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SourceGeneratorTest {
+
+    @Test
+    void generateConstantsAndNestedClasses() {
+        var tree = new LinkedHashMap<String, Object>();
+        tree.put("app-name", "nsr \"yaml\"");
+        tree.put("port", 8080);
+        tree.put("url@production", "https://example.com");
+        tree.put("database", Map.of("maxConnections", 10L));
+        tree.put("hosts", List.of("a", "b"));
+        tree.put("mixed", Arrays.asList(1, null));
+
+        var source = SourceGenerator.generate("config", "AppConfig", "app-config.yaml", tree);
+
+        assertThat(source)
+                .startsWith("package config;")
+                .contains("public final class AppConfig {")
+                .contains("public static final java.lang.String APP_NAME = \"nsr \\\"yaml\\\"\";")
+                .contains("public static final int PORT = 8080;")
+                .contains("public static final class Database {")
+                .contains("public static final long MAX_CONNECTIONS = 10L;")
+                .contains("public static final java.util.List<java.lang.String> HOSTS = "
+                        + "java.util.List.of(\"a\", \"b\");")
+                .contains("public static final java.util.List<java.lang.Object> MIXED = "
+                        + "java.util.Collections.unmodifiableList(java.util.Arrays.asList(1, null));")
+                .doesNotContain("URL");
+    }
+
+    @Test
+    void compileClassesNamedLikeJavaLangTypes(@TempDir Path dir) throws Exception {
+        var tree = new LinkedHashMap<String, Object>();
+        tree.put("name", "app");
+        tree.put("string", Map.of("max-length", 10));
+        tree.put("double", Map.of("ratio", 0.5, "limit", Double.POSITIVE_INFINITY));
+        tree.put("integer", Map.of("values", List.of(1, 2)));
+        tree.put("object", Map.of("items", List.of(Map.of("id", 5_000_000_000L), true)));
+        tree.put("boolean", Map.of("enabled", false));
+
+        var sourceFile = Files.writeString(dir.resolve("AppConfig.java"),
+                SourceGenerator.generate("", "AppConfig", "app-config.yaml", tree));
+        var errors = new ByteArrayOutputStream();
+        var status = ToolProvider.getSystemJavaCompiler()
+                .run(null, null, errors, "-d", dir.toString(), sourceFile.toString());
+
+        assertThat(status).as(errors.toString()).isZero();
+        try (var loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null)) {
+            assertThat(loader.loadClass("AppConfig").getField("NAME").get(null)).isEqualTo("app");
+            assertThat(loader.loadClass("AppConfig$String").getField("MAX_LENGTH").get(null)).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void convertNames() {
+        assertThat(SourceGenerator.className("app-config")).isEqualTo("AppConfig");
+        assertThat(SourceGenerator.className("test_server")).isEqualTo("TestServer");
+        assertThat(SourceGenerator.constantName("datePattern")).isEqualTo("DATE_PATTERN");
+        assertThat(SourceGenerator.constantName("2fa")).isEqualTo("_2FA");
+    }
+
+    @Test
+    void rejectKeysWithTheSameJavaName() {
+        var tree = new LinkedHashMap<String, Object>();
+        tree.put("max-size", 1);
+        tree.put("max_size", 2);
+
+        assertThatThrownBy(() -> SourceGenerator.generate("", "Limits", "limits.yaml", tree))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[MAX_SIZE]");
+    }
+}
@@ -0,0 +1,114 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Loads many YAML files in parallel into the loaded-files cache.
+ * <p>
+ * The files are parsed on the given executor, while a semaphore limits how many of them are read and parsed at the
+ * same time, so a large executor does not flood the disk.
+ */
+class BulkLoader {
+    private final Executor executor;
+    private final Semaphore ioPermits;
+    private final ObjMapper mapper;
+
+    /**
+     * Constructs a BulkLoader.
+     *
+     * @param executor        the executor that parses the files
+     * @param maxConcurrentIo the maximum number of files read and parsed at the same time
+     * @param mapper          the Object Mapper used by the readers of the files
+     */
+    protected BulkLoader(Executor executor, int maxConcurrentIo, ObjMapper mapper) {
+        this.executor = executor;
+        this.ioPermits = new Semaphore(maxConcurrentIo);
+        this.mapper = mapper;
+    }
+
+    /**
+     * Loads the files of the directory, and of its subdirectories, whose relative path matches the glob.
+     *
+     * @param directory the directory to search
+     * @param glob      the glob the relative paths of the files must match, such as `*.yaml`
+     * @return the loaded files, by path, sorted by path
+     * @throws YAMLFileException if the directory can't be searched or a file can't be loaded
+     */
+    protected Map<Path, LoadedFile> load(Path directory, String glob) {
+        var files = findFiles(directory, glob);
+
+        var futures = new ArrayList<CompletableFuture<LoadedFile>>();
+        for (Path file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> load(file), executor));
+        }
+
+        var loadedFiles = new LinkedHashMap<Path, LoadedFile>();
+        RuntimeException failure = null;
+        for (CompletableFuture<LoadedFile> future : futures) {
+            try {
+                var loadedFile = future.join();
+                loadedFiles.put(loadedFile.path(), loadedFile);
+            } catch (CompletionException e) {
+                var cause = e.getCause() instanceof RuntimeException runtimeException ?
+                        runtimeException : new YAMLFileException(e.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        return loadedFiles;
+    }
+
+    private LoadedFile load(Path file) {
+        ioPermits.acquireUninterruptibly();
+        try {
+            var start = System.nanoTime();
+            var filePath = file.toString();
+            var data = YAMLFileLoader.load(filePath);
+            var loadTime = Duration.ofNanos(System.nanoTime() - start);
+
+            if (data == null) {
+                throw new YAMLFileException("Cannot read empty file at path: " + filePath);
+            }
+            return new LoadedFile(file, new YAMLReader(data, mapper), loadTime);
+        } finally {
+            ioPermits.release();
+        }
+    }
+
+    private static List<Path> findFiles(Path directory, String glob) {
+        if (!Files.isDirectory(directory)) {
+            throw new YAMLFileException("Can't find this directory [" + directory + "]");
+        }
+
+        var matcher = directory.getFileSystem().getPathMatcher("glob:" + glob);
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(directory.relativize(path)))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new YAMLFileException("Error searching directory: " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package kinasr.nsr_yaml.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Reader that decodes the bytes of a ByteBuffer in small chunks, so a large (or memory-mapped) file is never
+ * decoded into one big String.
+ * <p>
+ * Like the reader SnakeYAML uses for input streams, the encoding is detected from the byte order mark and defaults to
+ * UTF-8, and malformed input is reported instead of replaced.
+ */
+class ByteBufferReader extends Reader {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE).flip();
+    private boolean decoded;
+    private boolean flushed;
+
+    /**
+     * Creates a reader of the remaining bytes of the buffer.
+     *
+     * @param bytes the buffer to read, which is consumed by this reader
+     */
+    protected ByteBufferReader(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.decoder = detectCharset(bytes).newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!chars.hasRemaining() && !fill()) {
+            return -1;
+        }
+
+        var count = Math.min(length, chars.remaining());
+        chars.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public void close() {
+        bytes.position(bytes.limit());
+        chars.position(chars.limit());
+        decoded = true;
+        flushed = true;
+    }
+
+    /**
+     * Decodes the next chunk of characters.
+     *
+     * @return false if there are no characters left
+     */
+    private boolean fill() throws IOException {
+        chars.clear();
+
+        while (!decoded && chars.position() == 0) {
+            var result = decoder.decode(bytes, chars, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            decoded = result.isUnderflow() && !bytes.hasRemaining();
+        }
+
+        if (decoded && !flushed) {
+            flushed = decoder.flush(chars).isUnderflow();
+        }
+
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    /**
+     * Detects the charset from the byte order mark and skips the mark.
+     */
+    private static Charset detectCharset(ByteBuffer bytes) {
+        if (startsWith(bytes, 0x00, 0x00, 0xFE, 0xFF)) {
+            bytes.position(bytes.position() + 4);
+            return Charset.forName("UTF-32BE");
+        }
+        if (startsWith(bytes, 0xFF, 0xFE, 0x00, 0x00)) {
+            bytes.position(bytes.position() + 4);
+            return Charset.forName("UTF-32LE");
+        }
+        if (startsWith(bytes, 0xEF, 0xBB, 0xBF)) {
+            bytes.position(bytes.position() + 3);
+            return StandardCharsets.UTF_8;
+        }
+        if (startsWith(bytes, 0xFE, 0xFF)) {
+            bytes.position(bytes.position() + 2);
+            return StandardCharsets.UTF_16BE;
+        }
+        if (startsWith(bytes, 0xFF, 0xFE)) {
+            bytes.position(bytes.position() + 2);
+            return StandardCharsets.UTF_16LE;
+        }
+
+        return StandardCharsets.UTF_8;
+    }
+
+    private static boolean startsWith(ByteBuffer bytes, int... mark) {
+        if (bytes.remaining() < mark.length) {
+            return false;
+        }
+
+        for (int i = 0; i < mark.length; i++) {
+            if ((bytes.get(bytes.position() + i) & 0xFF) != mark[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,184 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.time.Duration;
+
+/**
+ * Describes how many loaded files the cache may keep and which of them are removed first when it is full.
+ * <p>
+ * The default policy keeps every loaded file forever, which is the behavior of the library before any policy is set.
+ * A policy is applied using {@link YAML#setCachePolicy(CachePolicy)}.
+ */
+public class CachePolicy {
+    private long maxEntries = Long.MAX_VALUE;
+    private long maxRetainedBytes = Long.MAX_VALUE;
+    private Duration timeToLive;
+    private Eviction eviction = Eviction.LRU;
+    private Retention retention = Retention.STRONG;
+
+    /**
+     * Creates an unbounded policy that evicts the least recently used files once a limit is set.
+     */
+    public CachePolicy() {
+    }
+
+    /**
+     * Creates a copy of the given policy.
+     */
+    private CachePolicy(CachePolicy other) {
+        this.maxEntries = other.maxEntries;
+        this.maxRetainedBytes = other.maxRetainedBytes;
+        this.timeToLive = other.timeToLive;
+        this.eviction = other.eviction;
+        this.retention = other.retention;
+    }
+
+    /**
+     * Sets the maximum number of files the cache may keep.
+     *
+     * @param maxEntries the maximum number of files, must be positive
+     * @return this policy
+     */
+    public CachePolicy setMaxEntries(long maxEntries) {
+        if (maxEntries <= 0) {
+            throw new YAMLFileException("Max entries must be positive but was [" + maxEntries + "]");
+        }
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    /**
+     * Sets the maximum estimated number of bytes the cached trees may retain.
+     *
+     * @param maxRetainedBytes the maximum number of bytes, must be positive
+     * @return this policy
+     */
+    public CachePolicy setMaxRetainedBytes(long maxRetainedBytes) {
+        if (maxRetainedBytes <= 0) {
+            throw new YAMLFileException("Max retained bytes must be positive but was [" + maxRetainedBytes + "]");
+        }
+        this.maxRetainedBytes = maxRetainedBytes;
+        return this;
+    }
+
+    /**
+     * Sets how long a loaded file is kept before it is loaded again, or null to keep it until it is evicted.
+     *
+     * @param timeToLive the time to live of a loaded file
+     * @return this policy
+     */
+    public CachePolicy setTimeToLive(Duration timeToLive) {
+        if (timeToLive != null && (timeToLive.isNegative() || timeToLive.isZero())) {
+            throw new YAMLFileException("Time to live must be positive but was [" + timeToLive + "]");
+        }
+        this.timeToLive = timeToLive;
+        return this;
+    }
+
+    /**
+     * Sets which files are removed first when the cache exceeds one of its limits.
+     *
+     * @param eviction the eviction order
+     * @return this policy
+     */
+    public CachePolicy setEviction(Eviction eviction) {
+        if (eviction == null) {
+            throw new YAMLFileException("Eviction can't be null");
+        }
+        this.eviction = eviction;
+        return this;
+    }
+
+    /**
+     * Sets how the cache holds the loaded trees. With a soft or weak retention the garbage collector may reclaim a
+     * tree that is not in use, and the file is parsed again the next time it is read, which suits files that are
+     * read once and never again. The retention applies to the files loaded after it is set.
+     *
+     * @param retention how the loaded trees are held
+     * @return this policy
+     * @see CacheStats#reclaims()
+     */
+    public CachePolicy setRetention(Retention retention) {
+        if (retention == null) {
+            throw new YAMLFileException("Retention can't be null");
+        }
+        this.retention = retention;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of files the cache may keep.
+     */
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the maximum estimated number of bytes the cached trees may retain.
+     */
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * Returns how long a loaded file is kept, or null if it is kept until it is evicted.
+     */
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Returns which files are removed first when the cache exceeds one of its limits.
+     */
+    public Eviction getEviction() {
+        return eviction;
+    }
+
+    /**
+     * Returns how the cache holds the loaded trees.
+     */
+    public Retention getRetention() {
+        return retention;
+    }
+
+    /**
+     * Returns a copy of this policy, so later changes to this instance do not affect the cache that uses the copy.
+     */
+    protected CachePolicy copy() {
+        return new CachePolicy(this);
+    }
+
+    /**
+     * The order in which the cached files are evicted.
+     */
+    public enum Eviction {
+        /**
+         * Evicts the least recently used file first.
+         */
+        LRU,
+        /**
+         * Evicts the least frequently used file first, and the least recently used one among equally used files.
+         */
+        LFU
+    }
+
+    /**
+     * How the cache holds the loaded trees.
+     */
+    public enum Retention {
+        /**
+         * Keeps every tree until it is evicted or expires.
+         */
+        STRONG,
+        /**
+         * Keeps the trees through soft references, which the garbage collector clears only when the heap runs low,
+         * the least recently used first.
+         */
+        SOFT,
+        /**
+         * Keeps the trees through weak references, which the garbage collector clears as soon as no reader uses them.
+         */
+        WEAK
+    }
+}
@@ -0,0 +1,24 @@
+package kinasr.nsr_yaml.core;
+
+/**
+ * A snapshot of the loaded-files cache counters.
+ *
+ * @param hits               the number of requests served from an already loaded file
+ * @param misses             the number of requests that parsed a file
+ * @param waits              the number of requests that waited for another thread to finish parsing the same file
+ * @param entries            the number of files currently held in the cache
+ * @param retainedBytes      the estimated number of bytes retained by the cached trees
+ * @param evictions          the number of files evicted because the cache exceeded a limit of its policy
+ * @param expirations        the number of files removed because they outlived the time to live of the policy
+ * @param evictedBytes       the estimated number of bytes released by the evictions
+ * @param reloads            the number of files parsed again and swapped in because they changed on disk
+ * @param reloadFailures     the number of changed files that could not be parsed again and kept their old content
+ * @param internedStrings    the number of distinct strings shared by the cached trees when string interning is on
+ * @param internedBytesSaved the estimated number of bytes of the duplicate strings replaced by a shared one so far
+ * @param reclaims           the number of trees the garbage collector reclaimed, with a soft or weak retention
+ * @param reparses           the number of files parsed again because their tree had been reclaimed
+ */
+public record CacheStats(long hits, long misses, long waits, long entries, long retainedBytes,
+                         long evictions, long expirations, long evictedBytes, long reloads, long reloadFailures,
+                         long internedStrings, long internedBytesSaved, long reclaims, long reparses) {
+}
@@ -0,0 +1,463 @@
+package kinasr.nsr_yaml.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable lists backed by a single array.
+ * <p>
+ * A list whose items are all integers, all longs or all doubles keeps them in a primitive array and boxes an item
+ * only when it is read, so a long numeric sequence costs 4 or 8 bytes per item instead of a reference and a boxed
+ * number. Any other list keeps its items in an object array.
+ * <p>
+ * A long enough list of integers, longs, doubles or strings can instead be kept off-heap, in a direct buffer: numbers
+ * with a fixed width, and strings as the offsets of their UTF-8 bytes followed by the bytes. The garbage collector
+ * then sees a single buffer instead of one object per item, and a string is only decoded when it is read. The buffer
+ * is released once the list is collected.
+ */
+abstract class CompactList extends AbstractList<Object> implements RandomAccess {
+
+    private CompactList() {
+    }
+
+    /**
+     * Creates a compact list holding the given items, which are used as they are.
+     *
+     * @param items the items of the list
+     * @return the compact list
+     */
+    protected static CompactList of(Object[] items) {
+        return of(items, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a compact list holding the given items, kept off-heap if there are at least the given number of them
+     * and they are all integers, all longs, all doubles or all strings.
+     *
+     * @param items          the items of the list
+     * @param minOffHeapSize the minimum number of items of a list kept off-heap
+     * @return the compact list
+     */
+    protected static CompactList of(Object[] items, int minOffHeapSize) {
+        if (items.length >= minOffHeapSize) {
+            var offHeap = offHeap(items);
+            if (offHeap != null) {
+                return offHeap;
+            }
+        }
+
+        var numberType = numberType(items);
+        if (numberType == Integer.class) {
+            var ints = new int[items.length];
+            for (int i = 0; i < items.length; i++) {
+                ints[i] = (Integer) items[i];
+            }
+            return new Ints(ints);
+        }
+        if (numberType == Long.class) {
+            var longs = new long[items.length];
+            for (int i = 0; i < items.length; i++) {
+                longs[i] = (Long) items[i];
+            }
+            return new Longs(longs);
+        }
+        if (numberType == Double.class) {
+            var doubles = new double[items.length];
+            for (int i = 0; i < items.length; i++) {
+                doubles[i] = (Double) items[i];
+            }
+            return new Doubles(doubles);
+        }
+        return new ObjectArray(items);
+    }
+
+    /**
+     * Returns the estimated number of bytes of the list and its array or buffer, without the objects it refers to.
+     */
+    protected abstract long shallowSize();
+
+    /**
+     * Returns a copy of the items if they are kept as integers, without boxing them.
+     *
+     * @return the items, or null if they are not kept as integers
+     */
+    protected int[] toIntArray() {
+        return null;
+    }
+
+    /**
+     * Returns a copy of the items if they are kept as longs, without boxing them.
+     *
+     * @return the items, or null if they are not kept as longs
+     */
+    protected long[] toLongArray() {
+        return null;
+    }
+
+    /**
+     * Returns a copy of the items if they are kept as doubles, without boxing them.
+     *
+     * @return the items, or null if they are not kept as doubles
+     */
+    protected double[] toDoubleArray() {
+        return null;
+    }
+
+    /**
+     * Builds the off-heap list of the items if they share a supported type and fit in a single buffer.
+     *
+     * @return the off-heap list, or null if the items can't be kept off-heap
+     */
+    private static CompactList offHeap(Object[] items) {
+        var type = itemType(items);
+        if (type == Integer.class && items.length <= Integer.MAX_VALUE / Integer.BYTES) {
+            var buffer = ByteBuffer.allocateDirect(items.length * Integer.BYTES);
+            for (int i = 0; i < items.length; i++) {
+                buffer.putInt(i * Integer.BYTES, (Integer) items[i]);
+            }
+            return new OffHeapInts(buffer, items.length);
+        }
+        if (type == Long.class && items.length <= Integer.MAX_VALUE / Long.BYTES) {
+            var buffer = ByteBuffer.allocateDirect(items.length * Long.BYTES);
+            for (int i = 0; i < items.length; i++) {
+                buffer.putLong(i * Long.BYTES, (Long) items[i]);
+            }
+            return new OffHeapLongs(buffer, items.length);
+        }
+        if (type == Double.class && items.length <= Integer.MAX_VALUE / Double.BYTES) {
+            var buffer = ByteBuffer.allocateDirect(items.length * Double.BYTES);
+            for (int i = 0; i < items.length; i++) {
+                buffer.putDouble(i * Double.BYTES, (Double) items[i]);
+            }
+            return new OffHeapDoubles(buffer, items.length);
+        }
+        if (type == String.class) {
+            return OffHeapStrings.encode(items);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the class shared by every item if it is Integer, Long or Double, or null otherwise.
+     */
+    private static Class<?> numberType(Object[] items) {
+        var type = itemType(items);
+        return type == String.class ? null : type;
+    }
+
+    /**
+     * Returns the class shared by every item if it is Integer, Long, Double or String, or null otherwise.
+     */
+    private static Class<?> itemType(Object[] items) {
+        if (items.length == 0 || items[0] == null) {
+            return null;
+        }
+
+        var type = items[0].getClass();
+        if (type != Integer.class && type != Long.class && type != Double.class && type != String.class) {
+            return null;
+        }
+        for (Object item : items) {
+            if (item == null || item.getClass() != type) {
+                return null;
+            }
+        }
+        return type;
+    }
+
+    private static long arraySize(long length, int elementSize) {
+        return (16 + length * elementSize + 7) & ~7L;
+    }
+
+    /**
+     * Returns the estimated number of bytes of a direct buffer, its cleaner and the memory it allocates.
+     */
+    private static long bufferSize(ByteBuffer buffer) {
+        return 64 + 48 + buffer.capacity();
+    }
+
+    private static final class ObjectArray extends CompactList {
+        private final Object[] items;
+
+        private ObjectArray(Object[] items) {
+            this.items = items;
+        }
+
+        @Override
+        public Object get(int index) {
+            return items[index];
+        }
+
+        @Override
+        public int size() {
+            return items.length;
+        }
+
+        @Override
+        protected long shallowSize() {
+            return 16 + arraySize(items.length, 4);
+        }
+    }
+
+    private static final class Ints extends CompactList {
+        private final int[] items;
+
+        private Ints(int[] items) {
+            this.items = items;
+        }
+
+        @Override
+        protected int[] toIntArray() {
+            return items.clone();
+        }
+
+        @Override
+        public Object get(int index) {
+            return items[index];
+        }
+
+        @Override
+        public int size() {
+            return items.length;
+        }
+
+        @Override
+        protected long shallowSize() {
+            return 16 + arraySize(items.length, 4);
+        }
+    }
+
+    private static final class Longs extends CompactList {
+        private final long[] items;
+
+        private Longs(long[] items) {
+            this.items = items;
+        }
+
+        @Override
+        protected long[] toLongArray() {
+            return items.clone();
+        }
+
+        @Override
+        public Object get(int index) {
+            return items[index];
+        }
+
+        @Override
+        public int size() {
+            return items.length;
+        }
+
+        @Override
+        protected long shallowSize() {
+            return 16 + arraySize(items.length, 8);
+        }
+    }
+
+    private static final class Doubles extends CompactList {
+        private final double[] items;
+
+        private Doubles(double[] items) {
+            this.items = items;
+        }
+
+        @Override
+        protected double[] toDoubleArray() {
+            return items.clone();
+        }
+
+        @Override
+        public Object get(int index) {
+            return items[index];
+        }
+
+        @Override
+        public int size() {
+            return items.length;
+        }
+
+        @Override
+        protected long shallowSize() {
+            return 16 + arraySize(items.length, 8);
+        }
+    }
+
+    private static final class OffHeapInts extends CompactList {
+        private final ByteBuffer items;
+        private final int size;
+
+        private OffHeapInts(ByteBuffer items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        public Object get(int index) {
+            return items.getInt(Objects.checkIndex(index, size) * Integer.BYTES);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        protected int[] toIntArray() {
+            var ints = new int[size];
+            items.asIntBuffer().get(ints);
+            return ints;
+        }
+
+        @Override
+        protected long shallowSize() {
+            return 24 + bufferSize(items);
+        }
+    }
+
+    private static final class OffHeapLongs extends CompactList {
+        private final ByteBuffer items;
+        private final int size;
+
+        private OffHeapLongs(ByteBuffer items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        public Object get(int index) {
+            return items.getLong(Objects.checkIndex(index, size) * Long.BYTES);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        protected long[] toLongArray() {
+            var longs = new long[size];
+            items.asLongBuffer().get(longs);
+            return longs;
+        }
+
+        @Override
+        protected long shallowSize() {
+            return 24 + bufferSize(items);
+        }
+    }
+
+    private static final class OffHeapDoubles extends CompactList {
+        private final ByteBuffer items;
+        private final int size;
+
+        private OffHeapDoubles(ByteBuffer items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        public Object get(int index) {
+            return items.getDouble(Objects.checkIndex(index, size) * Double.BYTES);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        protected double[] toDoubleArray() {
+            var doubles = new double[size];
+            items.asDoubleBuffer().get(doubles);
+            return doubles;
+        }
+
+        @Override
+        protected long shallowSize() {
+            return 24 + bufferSize(items);
+        }
+    }
+
+    /**
+     * Strings kept as the UTF-8 bytes of every item, preceded by the offset at which each item starts and the offset
+     * at which the last one ends.
+     */
+    private static final class OffHeapStrings extends CompactList {
+        private final ByteBuffer items;
+        private final int size;
+
+        private OffHeapStrings(ByteBuffer items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        /**
+         * Encodes the strings, or returns null if they don't fit in a single buffer.
+         */
+        private static OffHeapStrings encode(Object[] items) {
+            var encoded = new byte[items.length][];
+            long length = (items.length + 1L) * Integer.BYTES;
+            for (int i = 0; i < items.length; i++) {
+                encoded[i] = ((String) items[i]).getBytes(StandardCharsets.UTF_8);
+                length += encoded[i].length;
+            }
+            if (length > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            var buffer = ByteBuffer.allocateDirect((int) length);
+            var offset = (items.length + 1) * Integer.BYTES;
+            for (int i = 0; i < items.length; i++) {
+                buffer.putInt(i * Integer.BYTES, offset);
+                buffer.put(offset, encoded[i]);
+                offset += encoded[i].length;
+            }
+            buffer.putInt(items.length * Integer.BYTES, offset);
+            return new OffHeapStrings(buffer, items.length);
+        }
+
+        @Override
+        public Object get(int index) {
+            var start = items.getInt(Objects.checkIndex(index, size) * Integer.BYTES);
+            var bytes = new byte[items.getInt((index + 1) * Integer.BYTES) - start];
+            items.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        protected long shallowSize() {
+            return 24 + bufferSize(items);
+        }
+    }
+
+    /**
+     * Whether the list keeps its items in a primitive array or an off-heap buffer rather than as objects.
+     *
+     * @param list the list
+     * @return true if the items are built when they are read
+     */
+    protected static boolean isPacked(List<?> list) {
+        return list instanceof CompactList compact && !(compact instanceof ObjectArray);
+    }
+
+    /**
+     * Whether the list keeps its items off-heap.
+     *
+     * @param list the list
+     * @return true if the items are kept in a direct buffer
+     */
+    protected static boolean isOffHeap(List<?> list) {
+        return list instanceof OffHeapInts || list instanceof OffHeapLongs || list instanceof OffHeapDoubles
+                || list instanceof OffHeapStrings;
+    }
+}
@@ -0,0 +1,203 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map with String keys, which keeps its keys and values in two arrays in insertion order.
+ * <p>
+ * Small maps are searched linearly, which is faster than hashing for a handful of keys. Larger maps add an
+ * open-addressing table of indexes, so a lookup costs a hash and a few array reads without allocating, instead of
+ * the entry objects of a `LinkedHashMap`.
+ */
+class CompactMap extends AbstractMap<String, Object> {
+    private static final int LINEAR_SCAN_LIMIT = 8;
+
+    private final String[] keys;
+    private final Object[] values;
+    private final int[] table;
+    private final boolean hasEnvironmentKeys;
+
+    /**
+     * Constructs a CompactMap from distinct keys and their values, which are used as they are and must not be changed
+     * afterward.
+     *
+     * @param keys   the distinct keys, in order
+     * @param values the values of the keys
+     */
+    protected CompactMap(String[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.table = keys.length > LINEAR_SCAN_LIMIT ? buildTable(keys) : null;
+        this.hasEnvironmentKeys = hasEnvironmentKeys(keys);
+    }
+
+    /**
+     * Constructs a CompactMap of distinct keys whose values are provided by {@link #value(int)}, which subclasses
+     * using this constructor must override.
+     *
+     * @param keys the distinct keys, in order
+     */
+    protected CompactMap(String[] keys) {
+        this(keys, null);
+    }
+
+    /**
+     * Returns the value of the key at the given position.
+     *
+     * @param index the position of the key
+     * @return the value of the key
+     */
+    protected Object value(int index) {
+        return values[index];
+    }
+
+    /**
+     * Whether some keys carry an environment suffix, such as `key@local`, so lookups without environment overrides
+     * can skip looking for them.
+     */
+    protected boolean hasEnvironmentKeys() {
+        return hasEnvironmentKeys;
+    }
+
+    /**
+     * Returns the length of the index table, or 0 for a map searched linearly.
+     */
+    protected int tableLength() {
+        return table != null ? table.length : 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        var index = indexOf(key);
+        return index >= 0 ? value(index) : null;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], value(i));
+        }
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return Arrays.asList(keys).iterator();
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        var entry = new SimpleImmutableEntry<>(keys[next], value(next));
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        if (table == null) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        var mask = table.length - 1;
+        for (int slot = hash(key) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            var index = table[slot] - 1;
+            if (keys[index].equals(key)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean hasEnvironmentKeys(String[] keys) {
+        var environmentKeys = false;
+        for (String key : keys) {
+            environmentKeys |= key.indexOf('@') >= 0;
+        }
+        return environmentKeys;
+    }
+
+    /**
+     * Builds a table at most half full, whose slots hold the index of a key plus one, or 0 when empty.
+     */
+    private static int[] buildTable(String[] keys) {
+        var table = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+        var mask = table.length - 1;
+
+        for (int i = 0; i < keys.length; i++) {
+            var slot = hash(keys[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return table;
+    }
+
+    private static int hash(Object key) {
+        var hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -2,6 +2,8 @@ package kinasr.nsr_yaml.core;
 
 import kinasr.nsr_yaml.exception.InvalidKeyException;
 
+import java.net.URL;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -9,9 +11,12 @@ import java.util.function.Function;
 
 /**
  * A singleton class that handles the configurations by reading data from YAML files.
+ * <p>
+ * The instance is created once, by the first thread that needs it, and every configuration value is read once, so
+ * the class can be used by concurrent readers.
  */
 class ConfigHandler {
-    private static ConfigHandler instance;
+    private static volatile ConfigHandler instance;
     private final YAMLReader reader;
     private final ConfigRecord<String> dateConfigDatePattern = new ConfigRecord<>("date-config.date-pattern");
     private final ConfigRecord<String> dateConfigTimePattern = new ConfigRecord<>("date-config.time-pattern");
@@ -23,8 +28,8 @@ class ConfigHandler {
      * Constructor for ConfigHandler class.
      */
     private ConfigHandler() {
-        var file = findConfigFile();
-        this.reader = file != null ? YAML.read(file, false) : null;
+        var resource = findConfigResource();
+        this.reader = resource != null ? YAML.readResource(resource, false) : null;
     }
 
     /**
@@ -33,10 +38,28 @@ class ConfigHandler {
      * @return ConfigHandler The singleton instance of the ConfigHandler class.
      */
     protected static ConfigHandler getInstance() {
-        if (instance == null) {
-            instance = new ConfigHandler();
+        var current = instance;
+        if (current == null) {
+            synchronized (ConfigHandler.class) {
+                current = instance;
+                if (current == null) {
+                    current = new ConfigHandler();
+                    instance = current;
+                }
+            }
         }
-        return instance;
+        return current;
+    }
+
+    /**
+     * Reads every configuration value, so later conversions don't read the configuration file.
+     */
+    protected void preload() {
+        getDateConfigDatePattern().ifPresent(Parser::formatter);
+        getDateConfigTimePattern().ifPresent(Parser::formatter);
+        getDateConfigDateTimePattern().ifPresent(Parser::formatter);
+        getDateConfigZonedPattern().ifPresent(Parser::formatter);
+        getEnvironments();
     }
 
     /**
@@ -76,46 +99,71 @@ class ConfigHandler {
                 .orElse(new ArrayList<>());
 
         if (propertyEnv != null) {
-            envInConfig.remove(propertyEnv);
-            envInConfig.add(0, propertyEnv);
+            return Optional.of(Environments.prioritize(propertyEnv, envInConfig));
         }
 
         return Optional.of(envInConfig);
     }
     
     /**
-     * Searches for the configuration file in the specified root path using possible file names.
+     * Searches the classpath for the configuration file using possible file names.
+     */
+    private static String findConfigResource() {
+        return findConfigResource(YAMLFileLoader::findResource);
+    }
+
+    /**
+     * Searches for the configuration file using possible file names, skipping any file that comes from the classes
+     * of this library, so only the configuration of the application is used.
+     *
+     * @param lookup the function that returns the URL of a resource, or null if it can't be found
+     * @return the name of the configuration file, or null if the application has none
      */
-    private String findConfigFile() {
-        var rootPath = "src/main/resources/";
+    static String findConfigResource(Function<String, URL> lookup) {
         var possibleNames = List.of("nsr_config.yaml", "nsr_config.yml", "config.yaml", "config.yml");
+        var library = ConfigHandler.class.getProtectionDomain().getCodeSource();
 
         for (String name : possibleNames) {
-            var filePath = rootPath + name;
-            if (Helper.validateFilePath(filePath) != null) {
-                return filePath;
+            var url = lookup.apply(name);
+            if (url != null && !isLibraryResource(url, library)) {
+                return name;
             }
         }
 
         return null;
     }
+
+    /**
+     * Checks whether a resource is in the directory or the jar the classes of this library are loaded from.
+     */
+    private static boolean isLibraryResource(URL url, CodeSource library) {
+        if (library == null || library.getLocation() == null) {
+            return false;
+        }
+
+        var location = library.getLocation().toString();
+        var resource = url.toString();
+        return resource.startsWith(location) || resource.startsWith("jar:" + location + "!/");
+    }
     
     /**
      * Attempts to fetch data for the specified configuration key, using the provided function
      * to read the value.
      */
     <T> Optional<T> fetchData(ConfigRecord<T> config, Function<String, T> read) {
-        if (reader != null && !config.isFetched) {
-            try {
-                config.value = read.apply(config.key);
-            } catch (InvalidKeyException ignore) {
-                // Ignore if the key does not exist
-            } finally {
-                config.isFetched = true;
+        synchronized (config) {
+            if (reader != null && !config.isFetched) {
+                try {
+                    config.value = read.apply(config.key);
+                } catch (InvalidKeyException ignore) {
+                    // Ignore if the key does not exist
+                } finally {
+                    config.isFetched = true;
+                }
             }
-        }
 
-        return Optional.ofNullable(config.value);
+            return Optional.ofNullable(config.value);
+        }
     }
 
 
@@ -0,0 +1,24 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Provides the executor of the asynchronous reads when the caller does not give one.
+ * <p>
+ * This version uses the common Fork/Join pool. On JDK 21 and later the multi-release jar replaces it with the version
+ * in `src/main/java21`, which reads every file on its own virtual thread.
+ */
+class DefaultExecutor {
+    private DefaultExecutor() {
+    }
+
+    /**
+     * Returns the default executor of the asynchronous reads.
+     *
+     * @return the common Fork/Join pool
+     */
+    protected static Executor get() {
+        return ForkJoinPool.commonPool();
+    }
+}
@@ -0,0 +1,56 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the environment overrides of a YAML tree, the `key@environment` keys, for a given list of environments
+ * instead of the environments of the configuration file.
+ * <p>
+ * This is meant for tools that resolve the values of every environment ahead of time, such as build plugins.
+ */
+public class Environments {
+    private Environments() {
+    }
+
+    /**
+     * Returns a copy of the tree in which every map, at every level, has the overrides of the environments applied the
+     * same way {@link YAMLReader} applies them when reading a key. The tree itself is not modified.
+     *
+     * @param tree         The tree of a YAML file, such as `YAML.read(filePath, false).get().asObject()`.
+     * @param environments The environments, the first one taking precedence over the next ones.
+     * @return The tree with the environment overrides applied.
+     */
+    public static Object apply(Object tree, List<String> environments) {
+        if (tree instanceof Map<?, ?> map) {
+            var copy = new LinkedHashMap<String, Object>();
+            map.forEach((key, value) -> copy.put(String.valueOf(key), apply(value, environments)));
+            return Helper.applyEnvironmentVariables(copy, environments);
+        }
+
+        if (tree instanceof List<?> list) {
+            var copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(apply(item, environments)));
+            return copy;
+        }
+
+        return tree;
+    }
+
+    /**
+     * Orders the configured environments for an active environment: the active one comes first, followed by the other
+     * configured environments, the same way the `NSR_ENV` property orders them.
+     *
+     * @param activeEnvironment      The active environment.
+     * @param configuredEnvironments The environments of the configuration file.
+     * @return The environments in order of precedence.
+     */
+    public static List<String> prioritize(String activeEnvironment, List<String> configuredEnvironments) {
+        var environments = new ArrayList<>(configuredEnvironments);
+        environments.remove(activeEnvironment);
+        environments.add(0, activeEnvironment);
+        return environments;
+    }
+}
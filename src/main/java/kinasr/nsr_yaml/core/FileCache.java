@@ -0,0 +1,752 @@
+package kinasr.nsr_yaml.core;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe cache for the parsed YAML trees.
+ * <p>
+ * Every key is loaded at most once at a time: the first caller of a missing key runs the loader while every
+ * concurrent caller of the same key waits for that result instead of parsing the file again.
+ * A failed load is not cached, so the next caller tries again.
+ * <p>
+ * The cache is bounded by its {@link CachePolicy}. Limits are enforced after every load by evicting the least
+ * recently or least frequently used entries, and an entry that outlived its time to live is loaded again.
+ * <p>
+ * Hits don't take any lock: they only stamp the entry. The loaded entries are kept ordered by the rank they had when
+ * they were last ordered, their last access or their number of accesses, and by load time. An entry whose rank grew
+ * since is moved when it reaches the front, so choosing a victim and expiring the oldest entries never scan the whole
+ * cache.
+ */
+class FileCache {
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final LinkedHashMap<String, Entry> loadOrder = new LinkedHashMap<>();
+    private final TreeMap<Long, LinkedHashMap<String, Entry>> evictionOrder = new TreeMap<>();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictedBytes = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+    private final LongAdder reclaims = new LongAdder();
+    private final LongAdder reparses = new LongAdder();
+    private final ReferenceQueue<Object> reclaimedValues = new ReferenceQueue<>();
+    private final Set<String> reclaimedKeys = ConcurrentHashMap.newKeySet();
+    private final StringPool strings;
+    private final ToLongFunction<String> sourceSize;
+    private final Consumer<String> onRemoval;
+    private volatile CachePolicy policy = new CachePolicy();
+
+    /**
+     * Constructs an empty cache with its own string pool.
+     */
+    protected FileCache() {
+        this(new StringPool());
+    }
+
+    /**
+     * Constructs an empty cache whose statistics report, and whose clearing empties, the given string pool.
+     *
+     * @param strings the pool of the strings shared by the cached values
+     */
+    protected FileCache(StringPool strings) {
+        this(strings, key -> -1);
+    }
+
+    /**
+     * Constructs an empty cache whose statistics report the given string pool and the source size of every entry.
+     *
+     * @param strings    the pool of the strings shared by the cached values
+     * @param sourceSize the function that returns the size of the source of a key, or -1 if it is unknown
+     */
+    protected FileCache(StringPool strings, ToLongFunction<String> sourceSize) {
+        this(strings, sourceSize, key -> {
+        });
+    }
+
+    /**
+     * Constructs an empty cache that also reports every key it stops caching, whether the entry was evicted,
+     * expired, reclaimed, cleared or failed to load. A key reloaded in place is not reported.
+     *
+     * @param strings    the pool of the strings shared by the cached values
+     * @param sourceSize the function that returns the size of the source of a key, or -1 if it is unknown
+     * @param onRemoval  the consumer of the removed keys, called while the cache is locked, so it must not wait
+     *                   for other threads using the cache
+     */
+    protected FileCache(StringPool strings, ToLongFunction<String> sourceSize, Consumer<String> onRemoval) {
+        this.strings = strings;
+        this.sourceSize = sourceSize;
+        this.onRemoval = onRemoval;
+    }
+
+    /**
+     * Returns whether the key is cached or loading.
+     *
+     * @param key the cache key
+     * @return true if the key has an entry
+     */
+    protected boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Returns the cached value of the key, or loads it using the loader if it is not cached yet.
+     *
+     * @param key    the cache key
+     * @param loader the function that loads the value of the key
+     * @return the cached or loaded value, which may be null
+     */
+    protected Object get(String key, Function<String, Object> loader) {
+        while (true) {
+            removeReclaimed();
+            var cached = entries.get(key);
+            if (cached != null && (expireIfNeeded(key, cached) || removeIfReclaimed(key, cached))) {
+                continue;
+            }
+            if (cached != null) {
+                var value = await(cached);
+                if (isReclaimed(value)) {
+                    removeIfReclaimed(key, cached);
+                    continue;
+                }
+                return unwrap(value);
+            }
+
+            var entry = new Entry();
+            cached = entries.putIfAbsent(key, entry);
+            if (cached != null) {
+                continue;
+            }
+
+            countMiss(key);
+            return load(key, entry, loader);
+        }
+    }
+
+    /**
+     * Returns a future of the cached value of the key, or loads it on the executor if it is not cached yet.
+     * Asynchronous and blocking callers of the same key share the same load.
+     *
+     * @param key      the cache key
+     * @param loader   the function that loads the value of the key
+     * @param executor the executor that runs the loader when the key is not cached
+     * @return a future of the cached or loaded value, which completes exceptionally if the load fails
+     */
+    protected CompletableFuture<Object> getAsync(String key, Function<String, Object> loader, Executor executor) {
+        while (true) {
+            removeReclaimed();
+            var cached = entries.get(key);
+            if (cached != null && (expireIfNeeded(key, cached) || removeIfReclaimed(key, cached))) {
+                continue;
+            }
+            if (cached != null) {
+                var hit = cached;
+                countAccess(hit);
+                return hit.future.thenCompose(value -> {
+                    if (isReclaimed(value)) {
+                        removeIfReclaimed(key, hit);
+                        return getAsync(key, loader, executor);
+                    }
+                    touch(hit);
+                    return CompletableFuture.completedFuture(unwrap(value));
+                });
+            }
+
+            var entry = new Entry();
+            cached = entries.putIfAbsent(key, entry);
+            if (cached != null) {
+                continue;
+            }
+
+            countMiss(key);
+            try {
+                executor.execute(() -> {
+                    try {
+                        load(key, entry, loader);
+                    } catch (RuntimeException | Error ignore) {
+                        // The failure is published through the future of the entry
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                remove(key, entry);
+                entry.future.completeExceptionally(e);
+            }
+            return entry.future.copy();
+        }
+    }
+
+    /**
+     * Loads the value of a cached key again and swaps it in atomically. Callers that already got the old value keep
+     * using it, while later callers get the new one. Nothing is loaded if the key is not cached or still loading.
+     * If the loader fails the old value is kept.
+     *
+     * @param key    the cache key
+     * @param loader the function that loads the value of the key
+     * @return true if the value was replaced
+     */
+    protected boolean reload(String key, Function<String, Object> loader) {
+        return reload(key, (reloadedKey, current) -> loader.apply(reloadedKey));
+    }
+
+    /**
+     * Loads the value of a cached key again from its current value and swaps it in atomically, the same way as
+     * {@link #reload(String, Function)}.
+     *
+     * @param key    the cache key
+     * @param loader the function that loads the value of the key, given the key and its current value
+     * @return true if the value was replaced
+     */
+    protected boolean reload(String key, BiFunction<String, Object, Object> loader) {
+        var current = entries.get(key);
+        if (current == null || !current.future.isDone() || current.future.isCompletedExceptionally()) {
+            return false;
+        }
+
+        Object value;
+        TreeStats treeStats;
+        var start = System.nanoTime();
+        try {
+            value = loader.apply(key, unwrap(current.future.join()));
+            treeStats = stats(key, value, start);
+        } catch (RuntimeException e) {
+            reloadFailures.increment();
+            return false;
+        }
+
+        var size = treeStats.retainedBytes();
+        var entry = new Entry();
+        entry.loadedAt = System.nanoTime();
+        entry.lastAccess = current.lastAccess;
+        entry.accesses.add(current.accesses.sum());
+        entry.retainedBytes = size;
+        entry.treeStats = treeStats;
+        entry.future.complete(hold(key, entry, value));
+
+        synchronized (evictionLock) {
+            if (!entries.replace(key, current, entry)) {
+                return false;
+            }
+            untrack(key, current);
+            track(key, entry);
+            retainedBytes.addAndGet(size - current.retainedBytes);
+        }
+        reloads.increment();
+
+        enforceLimits(key);
+        return true;
+    }
+
+    /**
+     * Removes a key, whether it is loaded or still loading. A load in progress still returns its value to its
+     * callers, but the value is not cached.
+     *
+     * @param key the cache key
+     */
+    protected void invalidate(String key) {
+        var entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    /**
+     * Returns the keys that are currently cached.
+     *
+     * @return a snapshot of the cached keys
+     */
+    protected Set<String> keys() {
+        removeReclaimed();
+        return Set.copyOf(entries.keySet());
+    }
+
+    /**
+     * Returns whether the cache holds the values it loads strongly, so they are only removed by its policy.
+     *
+     * @return true if the retention of the policy is strong
+     */
+    protected boolean retainsStrongly() {
+        return policy.getRetention() == CachePolicy.Retention.STRONG;
+    }
+
+    /**
+     * Sets the policy of the cache and evicts the entries that exceed its limits.
+     *
+     * @param policy the new cache policy
+     */
+    protected void setPolicy(CachePolicy policy) {
+        synchronized (evictionLock) {
+            var previous = this.policy;
+            this.policy = policy.copy();
+            if (previous.getEviction() != policy.getEviction()) {
+                evictionOrder.clear();
+                loadOrder.forEach(this::order);
+            }
+        }
+        enforceLimits(null);
+    }
+
+    /**
+     * Removes all the cached values and the pooled strings they shared.
+     */
+    protected void clear() {
+        synchronized (evictionLock) {
+            entries.forEach(this::remove);
+        }
+        strings.clear();
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     *
+     * @return the cache statistics
+     */
+    protected CacheStats stats() {
+        removeReclaimed();
+        return new CacheStats(hits.sum(), misses.sum(), waits.sum(), entries.size(), retainedBytes.get(),
+                evictions.sum(), expirations.sum(), evictedBytes.sum(), reloads.sum(), reloadFailures.sum(),
+                strings.size(), strings.savedBytes(), reclaims.sum(), reparses.sum());
+    }
+
+    /**
+     * Returns the statistics of the cached trees, recorded when they were loaded.
+     *
+     * @return the statistics of every loaded tree, by key
+     */
+    protected Map<String, TreeStats> treeStats() {
+        var treeStats = new TreeMap<String, TreeStats>();
+        entries.forEach((key, entry) -> {
+            if (entry.treeStats != null) {
+                treeStats.put(key, entry.treeStats);
+            }
+        });
+        return treeStats;
+    }
+
+    /**
+     * Returns the statistics recorded when the given tree was loaded, if it is a cached tree.
+     *
+     * @param value the tree
+     * @return the statistics of the tree, or null if it is not cached
+     */
+    protected TreeStats treeStatsOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        for (Entry entry : entries.values()) {
+            if (entry.treeStats != null && unwrap(entry.future.getNow(null)) == value) {
+                return entry.treeStats;
+            }
+        }
+        return null;
+    }
+
+    private TreeStats stats(String key, Object value, long loadStart) {
+        var parseTime = Duration.ofNanos(System.nanoTime() - loadStart);
+        return TreeSizeEstimator.stats(value, parseTime, sourceSize.applyAsLong(key));
+    }
+
+    /**
+     * Runs the loader for a new entry and publishes its result to the waiting callers.
+     */
+    private Object load(String key, Entry entry, Function<String, Object> loader) {
+        Object value;
+        TreeStats treeStats;
+        var start = System.nanoTime();
+        try {
+            value = loader.apply(key);
+            treeStats = stats(key, value, start);
+        } catch (RuntimeException | Error e) {
+            remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+
+        var size = treeStats.retainedBytes();
+        entry.treeStats = treeStats;
+        entry.loadedAt = System.nanoTime();
+        entry.lastAccess = entry.loadedAt;
+        synchronized (evictionLock) {
+            if (entries.get(key) == entry) {
+                entry.retainedBytes = size;
+                retainedBytes.addAndGet(size);
+                track(key, entry);
+            }
+        }
+        entry.future.complete(value);
+        settle(key, entry, value);
+
+        enforceLimits(key);
+        return value;
+    }
+
+    /**
+     * Replaces a loaded entry, whose future holds its value strongly for the callers that waited for the load, with
+     * an entry that holds it the way the policy retains the values.
+     */
+    private void settle(String key, Entry entry, Object value) {
+        if (value == null || retainsStrongly()) {
+            return;
+        }
+
+        var settled = new Entry();
+        settled.loadedAt = entry.loadedAt;
+        settled.lastAccess = entry.lastAccess;
+        settled.accesses.add(entry.accesses.sum());
+        settled.treeStats = entry.treeStats;
+        settled.future.complete(hold(key, settled, value));
+        synchronized (evictionLock) {
+            settled.retainedBytes = entry.retainedBytes;
+            if (entries.replace(key, entry, settled)) {
+                untrack(key, entry);
+                track(key, settled);
+            }
+        }
+    }
+
+    /**
+     * Returns the value to complete the future of an entry with: the value itself, or a soft or weak reference to it
+     * if the policy doesn't retain the values strongly.
+     */
+    private Object hold(String key, Entry entry, Object value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (policy.getRetention()) {
+            case STRONG -> value;
+            case SOFT -> new SoftValue(value, reclaimedValues, key, entry);
+            case WEAK -> new WeakValue(value, reclaimedValues, key, entry);
+        };
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof ReclaimableValue reclaimable ? reclaimable.value() : value;
+    }
+
+    private static boolean isReclaimed(Object value) {
+        return value instanceof ReclaimableValue reclaimable && reclaimable.value() == null;
+    }
+
+    /**
+     * Removes the entry if the garbage collector reclaimed its value.
+     *
+     * @return true if the entry was reclaimed and removed
+     */
+    private boolean removeIfReclaimed(String key, Entry entry) {
+        if (!entry.future.isDone() || entry.future.isCompletedExceptionally() || !isReclaimed(entry.future.join())) {
+            return false;
+        }
+        reclaim(key, entry);
+        return true;
+    }
+
+    /**
+     * Removes the entries whose values the garbage collector reclaimed since the last call.
+     */
+    private void removeReclaimed() {
+        for (var reference = reclaimedValues.poll(); reference != null; reference = reclaimedValues.poll()) {
+            var reclaimable = (ReclaimableValue) reference;
+            reclaim(reclaimable.key(), reclaimable.entry());
+        }
+    }
+
+    private void reclaim(String key, Entry entry) {
+        if (remove(key, entry)) {
+            reclaims.increment();
+            reclaimedKeys.add(key);
+        }
+    }
+
+    private void countMiss(String key) {
+        misses.increment();
+        if (reclaimedKeys.remove(key)) {
+            reparses.increment();
+        }
+    }
+
+    /**
+     * Removes the entry if it outlived the time to live of the policy.
+     *
+     * @return true if the entry was expired and removed
+     */
+    private boolean expireIfNeeded(String key, Entry entry) {
+        if (!isExpired(entry, System.nanoTime())) {
+            return false;
+        }
+
+        if (remove(key, entry)) {
+            expirations.increment();
+        }
+        return true;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        var timeToLive = policy.getTimeToLive();
+        return timeToLive != null && entry.future.isDone() && now - entry.loadedAt > timeToLive.toNanos();
+    }
+
+    /**
+     * Removes the oldest entries that outlived their time to live, then evicts entries until the cache fits the
+     * limits of the policy.
+     *
+     * @param loadedKey the key that has just been loaded, which is never evicted by its own load
+     */
+    private void enforceLimits(String loadedKey) {
+        var currentPolicy = policy;
+        if (currentPolicy.getTimeToLive() == null && entries.size() <= currentPolicy.getMaxEntries()
+                && retainedBytes.get() <= currentPolicy.getMaxRetainedBytes()) {
+            return;
+        }
+
+        synchronized (evictionLock) {
+            expireOldest(System.nanoTime());
+
+            while (entries.size() > currentPolicy.getMaxEntries()
+                    || retainedBytes.get() > currentPolicy.getMaxRetainedBytes()) {
+                var victim = nextVictim(loadedKey);
+                if (victim == null) {
+                    return;
+                }
+
+                var key = victim.getKey();
+                var entry = victim.getValue();
+                if (remove(key, entry)) {
+                    evictions.increment();
+                    evictedBytes.add(entry.retainedBytes);
+                } else {
+                    untrack(key, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the entries at the front of the load order while they are expired. The entries loaded later are
+     * expired by the next call, or when they are read.
+     */
+    private void expireOldest(long now) {
+        while (!loadOrder.isEmpty()) {
+            var oldest = loadOrder.entrySet().iterator().next();
+            var key = oldest.getKey();
+            var entry = oldest.getValue();
+            if (!isExpired(entry, now)) {
+                return;
+            }
+
+            if (remove(key, entry)) {
+                expirations.increment();
+            } else {
+                untrack(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Returns the loaded entry with the lowest rank, moving the entries whose rank grew since they were ordered.
+     *
+     * @return the entry to evict, or null if only the loaded key is left
+     */
+    private Map.Entry<String, Entry> nextVictim(String loadedKey) {
+        var lowest = evictionOrder.isEmpty() ? null : evictionOrder.firstKey();
+        while (lowest != null) {
+            var sameRank = evictionOrder.get(lowest);
+            for (Iterator<Map.Entry<String, Entry>> it = sameRank.entrySet().iterator(); it.hasNext(); ) {
+                var candidate = it.next();
+                var entry = candidate.getValue();
+                if (rank(entry) > entry.rank) {
+                    it.remove();
+                    order(candidate.getKey(), entry);
+                } else if (!candidate.getKey().equals(loadedKey)) {
+                    return candidate;
+                }
+            }
+
+            if (sameRank.isEmpty()) {
+                evictionOrder.remove(lowest);
+            }
+            lowest = evictionOrder.higherKey(lowest);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the rank of an entry in the eviction order of the policy, the lowest being evicted first.
+     */
+    private long rank(Entry entry) {
+        return policy.getEviction() == CachePolicy.Eviction.LFU ? entry.accesses.sum() : entry.lastAccess;
+    }
+
+    /**
+     * Adds a loaded entry at the end of the load order and at its rank in the eviction order. Must be called while
+     * holding the eviction lock.
+     */
+    private void track(String key, Entry entry) {
+        loadOrder.remove(key);
+        loadOrder.put(key, entry);
+        order(key, entry);
+    }
+
+    private void order(String key, Entry entry) {
+        entry.rank = rank(entry);
+        evictionOrder.computeIfAbsent(entry.rank, rank -> new LinkedHashMap<>()).put(key, entry);
+    }
+
+    /**
+     * Removes an entry from the load and eviction orders, if it is in them. Must be called while holding the
+     * eviction lock.
+     */
+    private void untrack(String key, Entry entry) {
+        loadOrder.remove(key, entry);
+        var sameRank = evictionOrder.get(entry.rank);
+        if (sameRank != null && sameRank.remove(key, entry) && sameRank.isEmpty()) {
+            evictionOrder.remove(entry.rank);
+        }
+    }
+
+    private boolean remove(String key, Entry entry) {
+        synchronized (evictionLock) {
+            if (!entries.remove(key, entry)) {
+                return false;
+            }
+            untrack(key, entry);
+            retainedBytes.addAndGet(-entry.retainedBytes);
+            onRemoval.accept(key);
+            return true;
+        }
+    }
+
+    /**
+     * Waits for the value of a cached entry, counting it as a hit if it is already loaded or as a wait otherwise.
+     */
+    private Object await(Entry entry) {
+        countAccess(entry);
+
+        Object value;
+        try {
+            value = entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+
+        touch(entry);
+        return value;
+    }
+
+    private void countAccess(Entry entry) {
+        if (entry.future.isDone()) {
+            hits.increment();
+        } else {
+            waits.increment();
+        }
+    }
+
+    private static void touch(Entry entry) {
+        entry.lastAccess = System.nanoTime();
+        entry.accesses.increment();
+    }
+
+    /**
+     * A value held through a soft or weak reference, with the key and the entry it belongs to, so the entry can be
+     * removed once the garbage collector clears the reference.
+     */
+    private interface ReclaimableValue {
+        Object value();
+
+        String key();
+
+        Entry entry();
+    }
+
+    private static final class SoftValue extends SoftReference<Object> implements ReclaimableValue {
+        private final String key;
+        private final Entry entry;
+
+        private SoftValue(Object value, ReferenceQueue<Object> queue, String key, Entry entry) {
+            super(value, queue);
+            this.key = key;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object value() {
+            return get();
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public Entry entry() {
+            return entry;
+        }
+    }
+
+    private static final class WeakValue extends WeakReference<Object> implements ReclaimableValue {
+        private final String key;
+        private final Entry entry;
+
+        private WeakValue(Object value, ReferenceQueue<Object> queue, String key, Entry entry) {
+            super(value, queue);
+            this.key = key;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object value() {
+            return get();
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public Entry entry() {
+            return entry;
+        }
+    }
+
+    /**
+     * A cached value together with the information needed to decide when to evict it.
+     */
+    private static class Entry {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final LongAdder accesses = new LongAdder();
+        private volatile long loadedAt;
+        private volatile long lastAccess;
+        private volatile long retainedBytes;
+        private volatile TreeStats treeStats;
+        private long rank;
+    }
+}
@@ -0,0 +1,213 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the directories of the loaded YAML files and reports the files that changed.
+ * <p>
+ * A burst of writes to the same file is reported once: a file is reported only after it stayed unchanged for the
+ * debounce period. The changes are reported on a single daemon thread, one file at a time.
+ * <p>
+ * A file is watched as long as one of its keys is cached; a directory stops being watched once none of its files is.
+ */
+class FileWatcher {
+    private final WatchService watchService;
+    private final long debounceNanos;
+    private final Consumer<String> onChange;
+    private final Map<Path, Set<String>> keysByFile = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> watchedDirectories = new ConcurrentHashMap<>();
+    private final Map<Path, Long> pendingChanges = new ConcurrentHashMap<>();
+    private final Thread thread;
+
+    /**
+     * Starts a watcher that reports the cache keys of the changed files to the given consumer.
+     *
+     * @param debounce how long a file must stay unchanged before it is reported
+     * @param onChange the consumer of the cache keys of the changed files
+     */
+    protected FileWatcher(Duration debounce, Consumer<String> onChange) {
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new YAMLFileException("Can't start watching the YAML files", e);
+        }
+
+        this.debounceNanos = debounce.toNanos();
+        this.onChange = onChange;
+        this.thread = new Thread(this::run, "nsr-yaml-file-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Watches the file of the given cache key. Keys that are not paths of existing files, such as the URLs of
+     * resources or the keys of parsed content, are ignored.
+     *
+     * @param key the cache key, which is the path of the loaded file
+     */
+    protected void watch(String key) {
+        var file = fileOf(key);
+        if (file == null || file.getParent() == null || !Files.isRegularFile(file)) {
+            return;
+        }
+
+        keysByFile.compute(file, (f, keys) -> {
+            var fileKeys = keys != null ? keys : ConcurrentHashMap.<String>newKeySet();
+            fileKeys.add(key);
+            return fileKeys;
+        });
+        watchedDirectories.computeIfAbsent(file.getParent(), this::register);
+    }
+
+    /**
+     * Stops watching the file of the given cache key, and its directory once none of its files is watched.
+     *
+     * @param key the cache key that is not cached anymore
+     */
+    protected void unwatch(String key) {
+        var file = fileOf(key);
+        if (file == null || file.getParent() == null) {
+            return;
+        }
+
+        var remaining = keysByFile.computeIfPresent(file, (f, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+        if (remaining != null) {
+            return;
+        }
+
+        pendingChanges.remove(file);
+        var directory = file.getParent();
+        watchedDirectories.computeIfPresent(directory, (d, watchKey) -> {
+            if (keysByFile.keySet().stream().anyMatch(watched -> directory.equals(watched.getParent()))) {
+                return watchKey;
+            }
+            watchKey.cancel();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the number of directories being watched.
+     *
+     * @return the number of watched directories
+     */
+    protected int watchedDirectories() {
+        return watchedDirectories.size();
+    }
+
+    /**
+     * Stops watching the files and the reporting thread.
+     */
+    protected void close() {
+        thread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException ignore) {
+            // Nothing to do, the watcher is not used anymore
+        }
+    }
+
+    /**
+     * Returns the absolute path of the file of a cache key, or null if the key is not a path.
+     */
+    private static Path fileOf(String key) {
+        try {
+            return Path.of(key).toAbsolutePath().normalize();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private WatchKey register(Path directory) {
+        try {
+            return directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new YAMLFileException("Can't watch this directory [" + directory + "]", e);
+        }
+    }
+
+    private void run() {
+        var pollMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(debounceNanos) / 2);
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                var watchKey = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (watchKey != null) {
+                    collectChanges(watchKey);
+                }
+                reportSettledChanges();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignore) {
+            // The watcher is closed
+        }
+    }
+
+    /**
+     * Marks the watched files touched by the events of the key as changed now.
+     */
+    private void collectChanges(WatchKey watchKey) {
+        var directory = (Path) watchKey.watchable();
+        var now = System.nanoTime();
+
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                keysByFile.keySet().stream()
+                        .filter(file -> directory.equals(file.getParent()))
+                        .forEach(file -> pendingChanges.put(file, now));
+                continue;
+            }
+
+            var file = directory.resolve((Path) event.context());
+            if (keysByFile.containsKey(file)) {
+                pendingChanges.put(file, now);
+            }
+        }
+
+        if (!watchKey.reset()) {
+            watchedDirectories.remove(directory);
+        }
+    }
+
+    /**
+     * Reports the changed files that stayed unchanged for the debounce period.
+     */
+    private void reportSettledChanges() {
+        var now = System.nanoTime();
+
+        pendingChanges.forEach((file, changedAt) -> {
+            if (now - changedAt < debounceNanos || !pendingChanges.remove(file, changedAt)) {
+                return;
+            }
+
+            for (String key : keysByFile.getOrDefault(file, Set.of())) {
+                try {
+                    onChange.accept(key);
+                } catch (RuntimeException ignore) {
+                    // Keep watching the other files, the failed file keeps its old content
+                }
+            }
+        });
+    }
+}
@@ -1,5 +1,4 @@
 package kinasr.nsr_yaml.core;
-import java.io.File;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -7,8 +6,8 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
- * Helper class contains utility methods for validating file paths and applying
- * environment-specific configurations to maps. This class is designed to be
+ * Helper class contains utility methods for applying environment-specific
+ * configurations to maps. This class is designed to be
  * non-instantiable.
  */
 class Helper {
@@ -19,20 +18,6 @@ class Helper {
         // Private constructor to prevent instantiation
     }
     
-    /**
-     * Validates if the specified file exists at the given file path.
-     *
-     * @param filePath The file path to validate.
-     * @return String The file path if the file exists, null otherwise.
-     */
-    protected static String validateFilePath(String filePath) {
-        var file = new File(filePath);
-        if (file.exists() && !file.isDirectory()) {
-            return filePath;
-        }
-        return null;
-    }
-    
     /**
      * Apply environment-specific configurations to the map.
      *
@@ -49,18 +34,80 @@ class Helper {
             return map;
         }
         
-        List<String> environmentList = environments.get();
+        return applyEnvironmentVariables(map, environments.get());
+    }
+    
+    /**
+     * Apply the configurations of the given environments to the map.
+     *
+     * @param map          The map to apply environment configurations to.
+     * @param environments The environments, the first one taking precedence over the next ones.
+     * @return The map with environment-specific configurations applied.
+     */
+    protected static Map<String, Object> applyEnvironmentVariables(Map<String, Object> map, List<String> environments) {
+        if (map == null) {
+            return map;
+        }
+        
         List<String> keysWithEnv = findKeysWithEnvironmentSuffix(map);
         
         HashSet<String> changedKeys = new HashSet<>();
         
-        for (String environment : environmentList) {
+        for (String environment : environments) {
             applyEnvironmentOverrides(map, keysWithEnv, changedKeys, environment);
         }
         
         return map;
     }
     
+    /**
+     * Returns the environments configured for the current configuration, or an empty list if there are none.
+     *
+     * @return The configured environments, the first one taking precedence over the next ones.
+     */
+    protected static List<String> configuredEnvironments() {
+        return ConfigHandler.getInstance().getEnvironments().orElse(List.of());
+    }
+    
+    /**
+     * Finds the key of the map that holds the value of the given key once the configurations of the environments are
+     * applied: the key suffixed with the first environment it has a value for, otherwise the key itself.
+     * Unlike {@link #applyEnvironmentVariables(Map, List)} the map is neither copied nor changed, and keys that are
+     * not strings match by their string form.
+     *
+     * @param map          The map to search in.
+     * @param key          The key to look up.
+     * @param environments The environments, the first one taking precedence over the next ones.
+     * @return The key holding the value, or empty if the map has no value for the key.
+     */
+    protected static Optional<Object> findKey(Map<?, ?> map, String key, List<String> environments) {
+        if (!(map instanceof CompactMap compact) || compact.hasEnvironmentKeys()) {
+            for (String environment : environments) {
+                var envKey = findKey(map, key + "@" + environment);
+                if (envKey.isPresent()) {
+                    return envKey;
+                }
+            }
+        }
+        
+        return findKey(map, key);
+    }
+    
+    private static Optional<Object> findKey(Map<?, ?> map, String key) {
+        if (map.containsKey(key)) {
+            return Optional.of(key);
+        }
+        if (map instanceof CompactMap) {
+            return Optional.empty();
+        }
+        
+        return map.keySet()
+                .stream()
+                .filter(k -> k != null && k.toString().equals(key))
+                .<Object>map(k -> k)
+                .findFirst();
+    }
+    
     /**
      * Finds all keys in the map that have an environment suffix.
      *
@@ -0,0 +1,285 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.InvalidKeyException;
+import kinasr.nsr_yaml.exception.ParsingException;
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Splices the files included by a YAML file into its tree.
+ * <p>
+ * A value is included either with the `!include` tag or with a map holding an `$include` key, whose value is the
+ * path of the included file, relative to the including file, optionally followed by `#` and the key of the included
+ * value inside that file:
+ * <pre>
+ * pool: !include common/db.yaml#pools.primary
+ * retry:
+ *   $include: common/retry.yaml
+ *   attempts: 5
+ * </pre>
+ * The other keys of an `$include` map are merged over the included value the same way as a later layer of
+ * {@link LayerMerger}. Included files are loaded through the cache of {@link YAMLFileLoader}, so a fragment is parsed
+ * once and its tree is shared by every file that includes it rather than copied into each of them.
+ * <p>
+ * A classpath resource includes other resources, relative to its own name. Content that is not read from a file or a
+ * resource, and files of other file systems, have no location the included paths could be relative to, so they fail
+ * to load if they include anything.
+ * <p>
+ * A file that includes itself, directly or through other files, fails to load, even when the files of the cycle are
+ * loaded by different threads at the same time.
+ */
+class IncludeResolver {
+    protected static final String INCLUDE_KEY = "$include";
+    protected static final String INCLUDE_TAG = "!include";
+    private static final char FRAGMENT_SEPARATOR = '#';
+
+    /**
+     * The includes being loaded, from the cache key of the including file to the cache keys of the included files.
+     */
+    private static final Map<String, List<String>> LOADING = new HashMap<>();
+
+    /**
+     * The cache keys of the files that included each file, so they are reloaded when the included file changes.
+     */
+    private static final Map<String, Set<String>> INCLUDERS = new ConcurrentHashMap<>();
+
+    private final String filePath;
+    private final String includer;
+    private final boolean resource;
+    private final Map<Object, Object> resolved = new IdentityHashMap<>();
+
+    private IncludeResolver(String filePath, String includer, boolean resource) {
+        this.filePath = filePath;
+        this.includer = includer;
+        this.resource = resource;
+    }
+
+    /**
+     * Returns whether the text of a document may include other files, without parsing it.
+     *
+     * @param text the YAML document
+     * @return false if the document certainly includes no file
+     */
+    protected static boolean mayInclude(String text) {
+        return text.contains(INCLUDE_TAG) || text.contains(INCLUDE_KEY);
+    }
+
+    /**
+     * Replaces the includes of the tree of a file with the included values.
+     *
+     * @param tree     the tree of the file
+     * @param filePath the path of the file, which the included paths are relative to
+     * @return the tree with the included values, or the same tree if it includes nothing
+     */
+    protected static Object resolve(Object tree, String filePath) {
+        return new IncludeResolver(filePath, YAMLFileLoader.cacheKey(filePath), false).resolve(tree);
+    }
+
+    /**
+     * Replaces the includes of the tree of a classpath resource with the included resources.
+     *
+     * @param tree the tree of the resource
+     * @param name the name of the resource, which the included names are relative to
+     * @param url  the URL of the resource, which is its cache key
+     * @return the tree with the included values, or the same tree if it includes nothing
+     */
+    protected static Object resolveResource(Object tree, String name, String url) {
+        return new IncludeResolver(name, url, true).resolve(tree);
+    }
+
+    /**
+     * Checks that a tree which can't include other files includes nothing.
+     *
+     * @param tree   the tree
+     * @param source the description of where the tree was read from
+     * @return the same tree
+     * @throws YAMLFileException if the tree includes a file
+     */
+    protected static Object rejectIncludes(Object tree, String source) {
+        return new IncludeResolver(source, null, false).resolve(tree);
+    }
+
+    /**
+     * Returns the cache keys of the files that included the given file.
+     *
+     * @param key the cache key of the included file
+     * @return the cache keys of the including files
+     */
+    protected static Set<String> includersOf(String key) {
+        return Set.copyOf(INCLUDERS.getOrDefault(key, Set.of()));
+    }
+
+    /**
+     * Forgets which files included each other.
+     */
+    protected static void clear() {
+        INCLUDERS.clear();
+    }
+
+    private Object resolve(Object node) {
+        // A lazy map is only built from a text that includes nothing, and reading its values would parse them all
+        if (node instanceof LazyMap) {
+            return node;
+        }
+        if (node instanceof Map<?, ?> || node instanceof List<?>) {
+            if (resolved.containsKey(node)) {
+                return resolved.get(node);
+            }
+            var value = node instanceof Map<?, ?> map ? resolveMap(map) : resolveList((List<?>) node);
+            resolved.put(node, value);
+            return value;
+        }
+        return node;
+    }
+
+    private Object resolveMap(Map<?, ?> map) {
+        if (map.containsKey(INCLUDE_KEY)) {
+            var included = include(map.get(INCLUDE_KEY));
+            var overrides = new LinkedHashMap<String, Object>();
+            map.forEach((key, value) -> {
+                if (!INCLUDE_KEY.equals(key)) {
+                    overrides.put(String.valueOf(key), resolve(value));
+                }
+            });
+            return overrides.isEmpty() ? included : LayerMerger.merge(List.of(included, overrides));
+        }
+
+        LinkedHashMap<Object, Object> copy = null;
+        for (var entry : map.entrySet()) {
+            var value = entry.getValue();
+            var resolvedValue = resolve(value);
+            if (copy == null && resolvedValue != value) {
+                copy = new LinkedHashMap<>();
+                for (var previous : map.entrySet()) {
+                    if (previous.getKey() == entry.getKey()) {
+                        break;
+                    }
+                    copy.put(previous.getKey(), previous.getValue());
+                }
+            }
+            if (copy != null) {
+                copy.put(entry.getKey(), resolvedValue);
+            }
+        }
+        return copy == null ? map : YamlFactory.compact(copy);
+    }
+
+    private Object resolveList(List<?> list) {
+        List<Object> copy = null;
+        for (int i = 0; i < list.size(); i++) {
+            var value = list.get(i);
+            var resolvedValue = resolve(value);
+            if (copy == null && resolvedValue != value) {
+                copy = new ArrayList<>(list.subList(0, i));
+            }
+            if (copy != null) {
+                copy.add(resolvedValue);
+            }
+        }
+        return copy == null ? list : YamlFactory.compact(copy);
+    }
+
+    /**
+     * Loads the value referenced by an include, through the cache of the included file.
+     */
+    private Object include(Object reference) {
+        if (!(reference instanceof String spec) || spec.isBlank()) {
+            throw new YAMLFileException("The include [" + reference + "] in [" + filePath + "] is not a file path");
+        }
+
+        if (includer == null) {
+            throw new YAMLFileException("The include [" + spec + "] in [" + filePath + "] can't be resolved, only "
+                    + "files and classpath resources can include other files");
+        }
+
+        var separator = spec.indexOf(FRAGMENT_SEPARATOR);
+        var path = separator < 0 ? spec : spec.substring(0, separator);
+        var fragment = separator < 0 ? null : spec.substring(separator + 1);
+
+        var includedPath = Path.of(filePath).resolveSibling(path).normalize().toString();
+        String included;
+        if (resource) {
+            includedPath = includedPath.replace(File.separatorChar, '/');
+            var url = YAMLFileLoader.findResource(includedPath);
+            if (url == null) {
+                throw new YAMLFileException("Can't find this resource [" + includedPath + "]");
+            }
+            included = url.toString();
+        } else {
+            included = YAMLFileLoader.cacheKey(includedPath);
+        }
+
+        enter(includer, included);
+        Object tree;
+        try {
+            tree = resource ? YAMLFileLoader.loadResource(includedPath) : YAMLFileLoader.load(includedPath);
+        } finally {
+            exit(includer, included);
+        }
+        INCLUDERS.computeIfAbsent(included, key -> ConcurrentHashMap.newKeySet()).add(includer);
+
+        if (fragment == null || fragment.isEmpty()) {
+            return tree;
+        }
+        try {
+            return new ObjMapper(false).get(tree, fragment);
+        } catch (InvalidKeyException | ParsingException e) {
+            throw new YAMLFileException("The include [" + spec + "] in [" + filePath + "] can't be found", e);
+        }
+    }
+
+    /**
+     * Records that a file is loading an included file, unless the included file is already loading the including one.
+     */
+    private static void enter(String includer, String included) {
+        synchronized (LOADING) {
+            if (includer.equals(included)) {
+                throw new YAMLFileException("Include cycle detected: [" + includer + "] includes itself");
+            }
+            if (reaches(included, includer, new ArrayList<>())) {
+                throw new YAMLFileException("Include cycle detected: [" + includer + "] includes [" + included
+                        + "], which includes [" + includer + "]");
+            }
+            LOADING.computeIfAbsent(includer, key -> new ArrayList<>()).add(included);
+        }
+    }
+
+    private static void exit(String includer, String included) {
+        synchronized (LOADING) {
+            var includes = LOADING.get(includer);
+            includes.remove(included);
+            if (includes.isEmpty()) {
+                LOADING.remove(includer);
+            }
+        }
+    }
+
+    /**
+     * Whether the file loads the target file, directly or through the files it is loading.
+     */
+    private static boolean reaches(String from, String target, List<String> visited) {
+        if (from.equals(target)) {
+            return true;
+        }
+        if (visited.contains(from)) {
+            return false;
+        }
+        visited.add(from);
+        for (var next : LOADING.getOrDefault(from, List.of())) {
+            if (reaches(next, target, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,139 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parses a changed YAML file again by reparsing only its top-level sections that changed.
+ * <p>
+ * A file is parsed section by section: the value of every top-level key is parsed from its own text, as
+ * {@link LazyTreeLoader} finds it, and a 64-bit digest of that text is recorded. When the file is parsed again, a
+ * section whose digest did not change keeps the value of the previous tree, so the new tree shares every unchanged
+ * subtree with the previous one and only the changed sections are parsed.
+ * <p>
+ * A document whose values can't be parsed apart, because it uses anchors or aliases for example, or that includes
+ * other files, is parsed fully every time.
+ */
+class IncrementalReloader {
+    private static final int MAX_FILES = 1024;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * The digests of the sections of each file, with the tree they were parsed into.
+     */
+    private static final ConcurrentMap<String, Digests> DIGESTS = new ConcurrentHashMap<>();
+
+    private IncrementalReloader() {
+    }
+
+    /**
+     * Parses a YAML file, reusing the unchanged sections of its previous tree.
+     *
+     * @param filePath the file path of the YAML file
+     * @param previous the previous tree of the file, or null if it has none
+     * @return the parsed data
+     */
+    protected static Object parse(String filePath, Object previous) {
+        var text = read(filePath);
+        var sections = IncludeResolver.mayInclude(text) ? null : LazyTreeLoader.scan(text);
+        if (sections == null) {
+            DIGESTS.remove(filePath);
+            return IncludeResolver.resolve(YamlFactory.compact(YamlFactory.load(new StringReader(text))), filePath);
+        }
+
+        var known = DIGESTS.get(filePath);
+        var reusable = known != null && previous instanceof Map<?, ?> map && known.tree.get() == previous
+                ? map : null;
+
+        var keys = sections.keys();
+        var hashes = new long[keys.length];
+        var tree = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = hash(text, sections.starts()[i], sections.ends()[i]);
+            var reused = reusable != null && known.matches(keys[i], i, hashes[i]);
+            tree.put(keys[i], reused ? reusable.get(keys[i]) : LazyTreeLoader.parse(text, sections, i));
+        }
+
+        var data = YamlFactory.compact(tree);
+        if (DIGESTS.size() >= MAX_FILES && !DIGESTS.containsKey(filePath)) {
+            DIGESTS.clear();
+        }
+        DIGESTS.put(filePath, new Digests(keys, hashes, new WeakReference<>(data)));
+        return data;
+    }
+
+    /**
+     * Forgets the digests of the parsed files.
+     */
+    protected static void clear() {
+        DIGESTS.clear();
+    }
+
+    private static String read(String filePath) {
+        try (Reader reader = YAMLFileLoader.openReader(filePath)) {
+            var text = new StringWriter();
+            reader.transferTo(text);
+            return text.toString();
+        } catch (IOException e) {
+            throw new YAMLFileException("Error reading YAML file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Returns the 64-bit FNV-1a hash of a part of the text.
+     */
+    private static long hash(String text, int start, int end) {
+        var hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * The digests of the sections of a file, and a weak reference to the tree they describe, so the digests are only
+     * trusted for that tree and don't keep it from being evicted.
+     */
+    private static class Digests {
+        private final String[] keys;
+        private final long[] hashes;
+        private final WeakReference<Object> tree;
+        private Map<String, Integer> positions;
+
+        private Digests(String[] keys, long[] hashes, WeakReference<Object> tree) {
+            this.keys = keys;
+            this.hashes = hashes;
+            this.tree = tree;
+        }
+
+        /**
+         * Whether the section of the key had the same hash, looking first at the same position, where it is found
+         * unless sections were added, removed or moved.
+         */
+        private synchronized boolean matches(String key, int position, long hash) {
+            if (position < keys.length && keys[position].equals(key)) {
+                return hashes[position] == hash;
+            }
+
+            if (positions == null) {
+                positions = new HashMap<>();
+                for (int i = 0; i < keys.length; i++) {
+                    positions.put(keys[i], i);
+                }
+            }
+            var previous = positions.get(key);
+            return previous != null && hashes[previous] == hash;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled key such as `a.b[2].c`, made of map keys and list indexes.
+ * <p>
+ * The key is split on dots; a part that ends with indexes in square brackets is a map key (if any) followed by these
+ * list indexes. Compiled keys are cached, so a key is parsed once no matter how many times it is used.
+ */
+class KeyPath {
+    private static final Pattern KEY_CONTAINS_LIST = Pattern.compile("^.*[\\[\\d+]]+$");
+    private static final Pattern NUMBER_IN_SQUARE_BRACKETS = Pattern.compile("\\[\\d+]");
+    private static final Pattern KEY_SEPARATOR = Pattern.compile("\\.");
+    private static final int MAX_CACHED_KEYS = 10_000;
+    private static final Map<String, KeyPath> COMPILED_KEYS = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final List<Object> segments;
+
+    private KeyPath(String key, List<Object> segments) {
+        this.key = key;
+        this.segments = segments;
+    }
+
+    /**
+     * Compiles a key into its segments.
+     *
+     * @param key the key to compile
+     * @return the compiled key
+     */
+    protected static KeyPath compile(String key) {
+        var compiled = COMPILED_KEYS.get(key);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        if (COMPILED_KEYS.size() >= MAX_CACHED_KEYS) {
+            COMPILED_KEYS.clear();
+        }
+        compiled = new KeyPath(key, parse(key));
+        COMPILED_KEYS.put(key, compiled);
+        return compiled;
+    }
+
+    /**
+     * Returns the key this path was compiled from.
+     */
+    protected String key() {
+        return key;
+    }
+
+    /**
+     * Returns the number of segments.
+     */
+    protected int size() {
+        return segments.size();
+    }
+
+    /**
+     * Returns true if the segment at the given position is a list index, false if it is a map key.
+     */
+    protected boolean isIndex(int position) {
+        return segments.get(position) instanceof Integer;
+    }
+
+    /**
+     * Returns the map key at the given position.
+     */
+    protected String name(int position) {
+        return (String) segments.get(position);
+    }
+
+    /**
+     * Returns the list index at the given position.
+     */
+    protected int index(int position) {
+        return (Integer) segments.get(position);
+    }
+
+    private static List<Object> parse(String key) {
+        var segments = new ArrayList<>();
+
+        for (String part : KEY_SEPARATOR.split(key)) {
+            if (!KEY_CONTAINS_LIST.matcher(part).matches()) {
+                segments.add(part);
+                continue;
+            }
+
+            var name = NUMBER_IN_SQUARE_BRACKETS.matcher(part).replaceAll("");
+            if (!name.isEmpty()) {
+                segments.add(name);
+            }
+
+            var matcher = NUMBER_IN_SQUARE_BRACKETS.matcher(part);
+            while (matcher.find()) {
+                var group = matcher.group();
+                segments.add(Integer.parseInt(group.substring(1, group.length() - 1)));
+            }
+        }
+
+        return List.copyOf(segments);
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,50 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deep-merges the trees of layered YAML files, such as `app.yaml`, `app-prod.yaml` and `app-local.yaml`.
+ * <p>
+ * Maps are merged key by key, the keys of a later layer overriding the same keys of the earlier ones, while any other
+ * value of a later layer, lists included, replaces the earlier value as a whole. Only the maps on the path of an
+ * overridden key are rebuilt: a subtree that a single layer defines is shared with the tree of that layer.
+ */
+class LayerMerger {
+
+    private LayerMerger() {
+    }
+
+    /**
+     * Merges the trees of the layers, in order.
+     *
+     * @param layers the trees of the layers, the later ones overriding the earlier ones; the trees of empty files
+     *               are null and are skipped
+     * @return the merged tree, or null if every layer is empty
+     */
+    protected static Object merge(List<Object> layers) {
+        Object merged = null;
+        for (Object layer : layers) {
+            if (layer != null) {
+                merged = merged == null ? layer : merge(merged, layer);
+            }
+        }
+        return merged;
+    }
+
+    private static Object merge(Object base, Object overlay) {
+        if (!(base instanceof Map<?, ?> baseMap) || !(overlay instanceof Map<?, ?> overlayMap)) {
+            return overlay;
+        }
+
+        var merged = new LinkedHashMap<String, Object>();
+        baseMap.forEach((key, value) -> merged.put(String.valueOf(key), value));
+        overlayMap.forEach((key, value) -> {
+            var name = String.valueOf(key);
+            merged.put(name, merged.containsKey(name) ? merge(merged.get(name), value) : value);
+        });
+
+        return YamlFactory.compact(merged);
+    }
+}
@@ -0,0 +1,149 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * An immutable map of the top-level keys of a YAML mapping, whose values are parsed from their source text the first
+ * time they are read.
+ * <p>
+ * Each value is parsed once: concurrent readers of a value that is not parsed yet wait for a single parse, and the
+ * parsed value is kept for the following reads. Readers of different values parse them in parallel, since the first
+ * reader of a value installs its parse in the slot of that value only. Once every value is parsed the source text is
+ * released. A value that fails to parse is not kept, so the next read parses it again.
+ */
+class LazyMap extends CompactMap {
+    private static final Object PENDING = new Object();
+
+    private final AtomicReferenceArray<Object> values;
+    private final int[] starts;
+    private final int[] ends;
+    private final AtomicInteger pending;
+    private volatile String source;
+
+    /**
+     * Constructs a LazyMap over the source of a mapping.
+     *
+     * @param source the source text of the mapping
+     * @param keys   the distinct keys of the mapping, in order
+     * @param starts the position in the source of the first character of the value of every key
+     * @param ends   the position in the source after the last character of the value of every key
+     */
+    protected LazyMap(String source, String[] keys, int[] starts, int[] ends) {
+        super(keys);
+        this.source = source;
+        this.starts = starts;
+        this.ends = ends;
+        this.values = new AtomicReferenceArray<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            values.set(i, PENDING);
+        }
+        this.pending = new AtomicInteger(keys.length);
+    }
+
+    @Override
+    protected Object value(int index) {
+        while (true) {
+            var value = values.get(index);
+            if (value instanceof FutureTask<?> parse) {
+                return await(parse);
+            }
+            if (value != PENDING) {
+                return value;
+            }
+
+            var parse = new FutureTask<>(() -> LazyTreeLoader.load(source.substring(starts[index], ends[index])));
+            if (values.compareAndSet(index, PENDING, parse)) {
+                return parse(index, parse);
+            }
+        }
+    }
+
+    /**
+     * Runs the parse installed in the slot of a value, then replaces it with the parsed value, or with
+     * {@link #PENDING} if it failed.
+     */
+    private Object parse(int index, FutureTask<Object> parse) {
+        parse.run();
+        try {
+            var value = await(parse);
+            values.set(index, value);
+            if (pending.decrementAndGet() == 0) {
+                source = null;
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            values.set(index, PENDING);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for a parse without being interrupted, and rethrows its failure.
+     */
+    private static Object await(FutureTask<?> parse) {
+        var interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return parse.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (e.getCause() instanceof Error error) {
+                        throw error;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Whether the value of the key at the given position was already parsed.
+     *
+     * @param index the position of the key
+     * @return true if the value is parsed
+     */
+    protected boolean isParsed(int index) {
+        return isParsedValue(values.get(index));
+    }
+
+    /**
+     * Passes the values that were already parsed to the action, without parsing the others.
+     *
+     * @param action the action to apply to every parsed value
+     */
+    protected void forEachParsedValue(Consumer<Object> action) {
+        for (int i = 0; i < values.length(); i++) {
+            var value = values.get(i);
+            if (isParsedValue(value)) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of characters of source text kept for the values that are not parsed yet.
+     *
+     * @return the length of the retained source, or 0 once every value is parsed
+     */
+    protected int sourceLength() {
+        var current = source;
+        return current != null ? current.length() : 0;
+    }
+
+    private static boolean isParsedValue(Object value) {
+        return value != PENDING && !(value instanceof FutureTask<?>);
+    }
+}
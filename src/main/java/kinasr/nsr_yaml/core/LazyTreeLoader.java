@@ -0,0 +1,209 @@
+package kinasr.nsr_yaml.core;
+
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads a YAML document whose top-level values are parsed only when they are first read.
+ * <p>
+ * Instead of composing the node graph of the whole document, which retains several times the memory of the values it
+ * describes, a single pass over the parse events records where the value of every top-level key starts and ends in
+ * the source text. The returned {@link LazyMap} parses a value from its own text the first time it is read, and a
+ * large value that is itself a mapping is loaded lazily the same way.
+ * <p>
+ * The values of a document can only be parsed apart when they don't depend on each other, so a document that uses
+ * anchors, aliases or tag directives, whose root is not a mapping, whose top-level keys are not plain strings, or
+ * that includes other files, is loaded eagerly. So is a small document, which is parsed about as fast as it is scanned.
+ */
+class LazyTreeLoader {
+    private static final int MIN_LAZY_LENGTH = 8 * 1024;
+    private static final Resolver RESOLVER = new Resolver();
+
+    private LazyTreeLoader() {
+    }
+
+    /**
+     * Loads the single document read by the reader.
+     *
+     * @param reader the reader of the YAML document
+     * @return a lazy map of the document, or its fully loaded tree if it can't be loaded lazily
+     * @throws IOException if the reader fails
+     */
+    protected static Object load(Reader reader) throws IOException {
+        var text = new StringWriter();
+        reader.transferTo(text);
+        return load(text.toString());
+    }
+
+    /**
+     * Loads the single document of the given text.
+     *
+     * @param text the YAML document
+     * @return a lazy map of the document, or its fully loaded tree if it can't be loaded lazily
+     */
+    protected static Object load(String text) {
+        var sections = text.length() >= MIN_LAZY_LENGTH && !IncludeResolver.mayInclude(text) ? scan(text) : null;
+        if (sections != null) {
+            return new LazyMap(text, sections.keys(), sections.starts(), sections.ends());
+        }
+        return YamlFactory.compact(YamlFactory.load(new StringReader(text)));
+    }
+
+    /**
+     * Records the top-level keys of the document and the position of their values, so every value can be parsed
+     * from its own text.
+     *
+     * @param text the YAML document
+     * @return the sections of the document, or null if its values can't be parsed apart
+     */
+    protected static Sections scan(String text) {
+        if (hasSurrogates(text)) {
+            return null;
+        }
+
+        var events = YamlFactory.parse(new StringReader(text)).iterator();
+        events.next();
+        if (!(events.next() instanceof DocumentStartEvent document) || !isDefault(document)
+                || !(events.next() instanceof MappingStartEvent root) || !isPlain(root)) {
+            return null;
+        }
+
+        var keys = new ArrayList<String>();
+        var starts = new ArrayList<Integer>();
+        var ends = new ArrayList<Integer>();
+        var interner = YamlFactory.interner();
+
+        for (var event = events.next(); !event.is(Event.ID.MappingEnd); event = events.next()) {
+            if (!(event instanceof ScalarEvent key) || !isStringKey(key)) {
+                return null;
+            }
+            keys.add(interner.apply(key.getValue()));
+
+            var first = events.next();
+            var last = skipValue(first, events);
+            if (last == null) {
+                return null;
+            }
+            starts.add(valueStart(text, first.getStartMark().getIndex()));
+            ends.add(last.getEndMark().getIndex());
+        }
+
+        events.next();
+        if (!events.next().is(Event.ID.StreamEnd) || new HashSet<>(keys).size() != keys.size()) {
+            return null;
+        }
+        return new Sections(keys.toArray(new String[0]), toArray(starts), toArray(ends));
+    }
+
+    /**
+     * Parses the value of a section eagerly.
+     *
+     * @param text     the YAML document
+     * @param sections the sections of the document
+     * @param index    the position of the section
+     * @return the tree of the value, in its compact form if the options keep the trees compact
+     */
+    protected static Object parse(String text, Sections sections, int index) {
+        var value = text.substring(sections.starts()[index], sections.ends()[index]);
+        return YamlFactory.compact(YamlFactory.load(new StringReader(value)));
+    }
+
+    /**
+     * Skips the events of a value.
+     *
+     * @return the last event of the value, or null if the value uses an anchor or an alias
+     */
+    private static Event skipValue(Event first, Iterator<Event> events) {
+        var event = first;
+        var depth = 0;
+        while (true) {
+            if (event.is(Event.ID.Alias) || event instanceof NodeEvent node && node.getAnchor() != null) {
+                return null;
+            }
+            if (event instanceof CollectionStartEvent) {
+                depth++;
+            } else if (event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd)) {
+                depth--;
+            }
+
+            if (depth == 0) {
+                return event;
+            }
+            event = events.next();
+        }
+    }
+
+    /**
+     * Moves the start of a value that begins its own line back to the start of the line, so a block collection keeps
+     * the same indentation on every line.
+     */
+    private static int valueStart(String text, int start) {
+        var lineStart = start;
+        while (lineStart > 0 && text.charAt(lineStart - 1) == ' ') {
+            lineStart--;
+        }
+        return lineStart == 0 || text.charAt(lineStart - 1) == '\n' ? lineStart : start;
+    }
+
+    private static boolean isDefault(DocumentStartEvent document) {
+        return document.getVersion() == null && (document.getTags() == null || document.getTags().isEmpty());
+    }
+
+    private static boolean isPlain(MappingStartEvent root) {
+        return root.getAnchor() == null && root.getImplicit();
+    }
+
+    private static boolean isStringKey(ScalarEvent key) {
+        if (key.getAnchor() != null) {
+            return false;
+        }
+        if (!key.isPlain()) {
+            return key.getTag() == null;
+        }
+        return key.getImplicit().canOmitTagInPlainScalar()
+                && RESOLVER.resolve(NodeId.scalar, key.getValue(), true).equals(Tag.STR);
+    }
+
+    /**
+     * Whether the text holds characters outside the Basic Multilingual Plane, whose positions in the parse events,
+     * counted in code points, don't match their positions in the String.
+     */
+    private static boolean hasSurrogates(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isSurrogate(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        var array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * The top-level keys of a document, in order, and the start and end positions of their values in its text.
+     */
+    protected record Sections(String[] keys, int[] starts, int[] ends) {
+    }
+}
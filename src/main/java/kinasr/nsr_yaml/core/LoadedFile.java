@@ -0,0 +1,14 @@
+package kinasr.nsr_yaml.core;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * A YAML file read as part of a bulk read, together with how long it took to load.
+ *
+ * @param path     the path of the file
+ * @param reader   the reader of the file content
+ * @param loadTime how long the file took to load, which is close to zero if it was already cached
+ */
+public record LoadedFile(Path path, YAMLReader reader, Duration loadTime) {
+}
@@ -0,0 +1,68 @@
+package kinasr.nsr_yaml.core;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.constructor.AbstractConstruct;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * The SnakeYAML constructor used by the `Yaml` instances of {@link YamlFactory}, exposed so a single node can be
+ * turned into its Java value outside a full document load.
+ * <p>
+ * Every string scalar, map keys included, goes through the interner of the constructor, which shares equal strings
+ * across the loaded trees when string interning is enabled. The scalars of other types, such as numbers and booleans,
+ * are not interned, since their text is dropped once their value is built.
+ * <p>
+ * A scalar tagged with `!include` is constructed as a map of its `$include` key, which {@link IncludeResolver}
+ * replaces with the included value once the document is loaded.
+ */
+class NodeConstructor extends Constructor {
+    private final UnaryOperator<String> interner;
+
+    /**
+     * Constructs a NodeConstructor with the given loading options.
+     *
+     * @param loaderOptions the SnakeYAML loading options
+     * @param interner      the function that returns the instance to use for a string scalar
+     */
+    protected NodeConstructor(LoaderOptions loaderOptions, UnaryOperator<String> interner) {
+        super(loaderOptions);
+        this.interner = interner;
+        this.yamlConstructors.put(Tag.STR, new ConstructInternedStr());
+        this.yamlConstructors.put(new Tag(IncludeResolver.INCLUDE_TAG), new ConstructInclude());
+    }
+
+    /**
+     * Constructs the Java value of a node, the same way it would be constructed as part of a document.
+     *
+     * @param node the node to construct
+     * @return the Java value of the node
+     */
+    protected Object construct(Node node) {
+        return constructDocument(node);
+    }
+
+    private class ConstructInternedStr extends ConstructYamlStr {
+        @Override
+        public Object construct(Node node) {
+            return interner.apply((String) super.construct(node));
+        }
+    }
+
+    private class ConstructInclude extends AbstractConstruct {
+        @Override
+        public Object construct(Node node) {
+            if (!(node instanceof ScalarNode scalar)) {
+                throw new YAMLException("The " + IncludeResolver.INCLUDE_TAG + " tag only applies to a file path, "
+                        + node.getStartMark());
+            }
+            return Map.of(IncludeResolver.INCLUDE_KEY, constructScalar(scalar));
+        }
+    }
+}
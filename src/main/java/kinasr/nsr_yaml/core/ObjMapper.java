@@ -1,20 +1,17 @@
 package kinasr.nsr_yaml.core;
 
 import kinasr.nsr_yaml.exception.InvalidKeyException;
+import kinasr.nsr_yaml.exception.ParsingException;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.StringJoiner;
 
 /**
  * Class that provides methods for mapping objects with keys.
  */
 class ObjMapper {
-    private static final String KEY_CONTAINS_LIST_REGEX = "^.*[\\[\\d+]]+$";
-    private static final String NUMBER_IN_SQUARE_BRACKETS_REGEX = "\\[\\d+]";
-    private static final String SQUARE_BRACKETS_REGEX = "[\\[\\]]";
-    private static final String KEY_SEPARATOR_REGEX = "\\.";
+    private static final int MAX_REPORTED_KEYS = 20;
 
     private final Boolean shouldApplyEnvironmentVariables;
 
@@ -35,83 +32,80 @@ class ObjMapper {
      * @return The value of the object for the specified key.
      */
     protected Object get(Object obj, String key) {
-        var keys = splitKey(key);
-
-        for (String k : keys) {
-            obj = isList(k) ? getObjFromList(obj, k) : getObjFromMap(obj, k);
-        }
-
-        return obj;
+        return get(obj, KeyPath.compile(key), 0);
     }
 
     /**
-     * Retrieve an object from a list.
+     * Retrieve the value of an object based on the segments of a compiled key, starting from the given segment.
+     *
+     * @param obj  The object to retrieve the value from.
+     * @param path The compiled key for the value to retrieve.
+     * @param from The position of the first segment to apply.
+     * @return The value of the object for the specified segments.
      */
-    private Object getObjFromList(Object obj, String key) {
-        var indexes = getIndexesFromKeyList(key);
-        key = key.replaceAll(NUMBER_IN_SQUARE_BRACKETS_REGEX, "");
-
-        if (!key.isEmpty()) {
-            obj = getObjFromMap(obj, key);
-        }
-
-        for (Integer index : indexes) {
-            var list = Parser.toList(obj, Object.class);
-
-            if (index >= list.size()) {
-                throw new InvalidKeyException("This index [" + index + "] is out of the boundary of [" + list + "]");
-            }
-
-            obj = list.get(index);
+    protected Object get(Object obj, KeyPath path, int from) {
+        for (int i = from; i < path.size(); i++) {
+            obj = path.isIndex(i) ? getObjFromList(obj, path.index(i)) : getObjFromMap(obj, path.name(i));
         }
 
         return obj;
     }
 
     /**
-     * Retrieve an object from a map.
+     * Whether this mapper applies environment variables to maps.
      */
-    private Object getObjFromMap(Object obj, String key) {
-        var map = Parser.toMap(obj, Object.class);
+    protected boolean appliesEnvironmentVariables() {
+        return shouldApplyEnvironmentVariables;
+    }
 
-        if (shouldApplyEnvironmentVariables) {
-            map = Helper.applyEnvironmentVariables(map);
+    /**
+     * Retrieve an object from a list, without copying the list.
+     */
+    private Object getObjFromList(Object obj, int index) {
+        if (!(obj instanceof List<?> list)) {
+            throw new ParsingException("This object [" + obj + "] can't be list");
         }
 
-        if (!map.containsKey(key)) {
-            throw new InvalidKeyException("This key [" + key + "] does not exist in [" + map + "]");
+        if (index >= list.size()) {
+            throw new InvalidKeyException("This index [" + index + "] is out of the boundary of a list of ["
+                    + list.size() + "] items");
         }
 
-        return map.get(key);
+        return list.get(index);
     }
 
     /**
-     * Retrieve the indexes from a list key.
+     * Retrieve an object from a map, looking up the key of the first environment that overrides it instead of
+     * copying the map with the environment variables applied.
      */
-    private List<Integer> getIndexesFromKeyList(String key) {
-        var indexes = new ArrayList<Integer>();
-        var matcher = Pattern.compile(NUMBER_IN_SQUARE_BRACKETS_REGEX).matcher(key);
-
-        while (matcher.find()) {
-            indexes.add(Integer.parseInt(
-                    matcher.group().replaceAll(SQUARE_BRACKETS_REGEX, "")
-            ));
+    private Object getObjFromMap(Object obj, String key) {
+        if (!(obj instanceof Map<?, ?> map)) {
+            throw new ParsingException("This object [" + obj + "] can't be Map");
         }
 
-        return indexes;
-    }
+        var environments = shouldApplyEnvironmentVariables ? Helper.configuredEnvironments() : List.<String>of();
+        var keyInMap = Helper.findKey(map, key, environments);
+        if (keyInMap.isEmpty()) {
+            throw new InvalidKeyException("This key [" + key + "] does not exist, the available keys are "
+                    + availableKeys(map));
+        }
 
-    /**
-     * Split the specified key into a list of keys.
-     */
-    private List<String> splitKey(String key) {
-        return Arrays.stream(key.split(KEY_SEPARATOR_REGEX)).toList();
+        return map.get(keyInMap.get());
     }
 
     /**
-     * Determine if the specified key contains a list.
+     * Describes the keys of a map, without its values, which a lazy map would have to parse to print them.
      */
-    private boolean isList(String key) {
-        return key.matches(KEY_CONTAINS_LIST_REGEX);
+    private static String availableKeys(Map<?, ?> map) {
+        var keys = new StringJoiner(", ", "[", "]");
+        var count = 0;
+        for (Object mapKey : map.keySet()) {
+            if (count++ == MAX_REPORTED_KEYS) {
+                keys.add("... " + (map.size() - MAX_REPORTED_KEYS) + " more");
+                break;
+            }
+            keys.add(String.valueOf(mapKey));
+        }
+        return keys.toString();
     }
 }
@@ -10,6 +10,7 @@ import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
@@ -22,6 +23,20 @@ import java.util.function.Function;
 public class Parser {
     private static final Map<Class<?>, Function<Object, ?>> parsingMap = new HashMap<>();
     private static final String FROM_DATE_PATTERN = "EEE MMM dd HH:mm:ss zzz yyyy";
+    private static final DateTimeFormatter FROM_DATE_FORMATTER =
+            DateTimeFormatter.ofPattern(FROM_DATE_PATTERN).withLocale(Locale.US);
+    private static final int MAX_CACHED_FORMATTERS = 256;
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+    private static final ClassValue<List<FieldBinding>> FIELD_BINDINGS = new ClassValue<>() {
+        @Override
+        protected List<FieldBinding> computeValue(Class<?> type) {
+            var bindings = new ArrayList<FieldBinding>();
+            for (Field field : type.getDeclaredFields()) {
+                bindings.add(new FieldBinding(field));
+            }
+            return List.copyOf(bindings);
+        }
+    };
 
     static {
         parsingMap.put(Object.class, obj -> obj);
@@ -289,8 +304,7 @@ public class Parser {
 
         var objStr = toString(obj);
         try {
-            return LocalDate.parse(objStr,
-                            DateTimeFormatter.ofPattern(FROM_DATE_PATTERN).withLocale(Locale.US))
+            return LocalDate.parse(objStr, FROM_DATE_FORMATTER)
                     .plusDays(OffsetDateTime.now().getOffset().getTotalSeconds() < 0 ? 1 : 0);
         } catch (DateTimeParseException ignore) {
             // Ignore the exception, this to handle the dates that read as Date object by default
@@ -298,10 +312,10 @@ public class Parser {
 
         AtomicReference<LocalDate> localDate = new AtomicReference<>();
         if (pattern != null)
-            localDate.set(LocalDate.parse(objStr, DateTimeFormatter.ofPattern(pattern)));
+            localDate.set(LocalDate.parse(objStr, formatter(pattern)));
         else {
             ConfigHandler.getInstance().getDateConfigDatePattern().ifPresentOrElse(
-                    p -> localDate.set(LocalDate.parse(objStr, DateTimeFormatter.ofPattern(p))),
+                    p -> localDate.set(LocalDate.parse(objStr, formatter(p))),
                     () -> localDate.set(LocalDate.parse(objStr)));
         }
 
@@ -326,10 +340,10 @@ public class Parser {
         } else {
             var objStr = toString(obj);
             if (pattern != null)
-                localTime.set(LocalTime.parse(objStr, DateTimeFormatter.ofPattern(pattern)));
+                localTime.set(LocalTime.parse(objStr, formatter(pattern)));
             else {
                 ConfigHandler.getInstance().getDateConfigTimePattern().ifPresentOrElse(
-                        p -> localTime.set(LocalTime.parse(objStr, DateTimeFormatter.ofPattern(p))),
+                        p -> localTime.set(LocalTime.parse(objStr, formatter(p))),
                         () -> localTime.set(LocalTime.parse(objStr)));
             }
         }
@@ -350,8 +364,7 @@ public class Parser {
 
         var objStr = toString(obj);
         try {
-            return LocalDateTime.parse(objStr,
-                            DateTimeFormatter.ofPattern(FROM_DATE_PATTERN).withLocale(Locale.US))
+            return LocalDateTime.parse(objStr, FROM_DATE_FORMATTER)
                     .minusSeconds(OffsetDateTime.now().getOffset().getTotalSeconds());
         } catch (DateTimeParseException ignore) {
             // Ignore the exception, this to handle the dates that read as Date object by default
@@ -359,10 +372,10 @@ public class Parser {
 
         AtomicReference<LocalDateTime> localDateTime = new AtomicReference<>();
         if (pattern != null)
-            localDateTime.set(LocalDateTime.parse(objStr, DateTimeFormatter.ofPattern(pattern)));
+            localDateTime.set(LocalDateTime.parse(objStr, formatter(pattern)));
         else {
             ConfigHandler.getInstance().getDateConfigDateTimePattern().ifPresentOrElse(
-                    p -> localDateTime.set(LocalDateTime.parse(objStr, DateTimeFormatter.ofPattern(p))),
+                    p -> localDateTime.set(LocalDateTime.parse(objStr, formatter(p))),
                     () -> localDateTime.set(LocalDateTime.parse(objStr)));
         }
 
@@ -382,8 +395,7 @@ public class Parser {
 
         var objStr = toString(obj);
         try {
-            return ZonedDateTime.parse(objStr,
-                    DateTimeFormatter.ofPattern(FROM_DATE_PATTERN).withLocale(Locale.US));
+            return ZonedDateTime.parse(objStr, FROM_DATE_FORMATTER);
         } catch (DateTimeParseException ignore) {
             // Ignore the exception, this to handle the dates that read as Date object by default
         }
@@ -391,10 +403,10 @@ public class Parser {
         var zonedDateTime = new AtomicReference<ZonedDateTime>();
         if (pattern == null) {
             ConfigHandler.getInstance().getDateConfigZonedPattern().ifPresentOrElse(
-                    p -> zonedDateTime.set(ZonedDateTime.parse(objStr, DateTimeFormatter.ofPattern(p))),
+                    p -> zonedDateTime.set(ZonedDateTime.parse(objStr, formatter(p))),
                     () -> zonedDateTime.set(ZonedDateTime.parse(objStr)));
         } else
-            zonedDateTime.set(ZonedDateTime.parse(objStr, DateTimeFormatter.ofPattern(pattern)));
+            zonedDateTime.set(ZonedDateTime.parse(objStr, formatter(pattern)));
 
         return zonedDateTime.get();
     }
@@ -420,6 +432,80 @@ public class Parser {
         throw new ParsingException("This object [" + obj + "] can't be list");
     }
 
+    /**
+     * Converts the given object to an array of ints. A list kept as integers, on the heap or off-heap, is copied
+     * without boxing its items.
+     *
+     * @param obj The object to be converted to an array.
+     * @return The converted array.
+     * @throws ParsingException if the input object is not a list or one of its items can't be parsed to an Integer.
+     */
+    protected static int[] toIntArray(Object obj) {
+        var items = obj instanceof CompactList list ? list.toIntArray() : null;
+        if (items != null)
+            return items;
+
+        var list = toPrimitiveList(obj);
+        items = new int[list.size()];
+        for (int i = 0; i < items.length; i++)
+            items[i] = toPrimitive(list.get(i), "int", Parser::toInteger);
+        return items;
+    }
+
+    /**
+     * Converts the given object to an array of longs. A list kept as longs, on the heap or off-heap, is copied
+     * without boxing its items.
+     *
+     * @param obj The object to be converted to an array.
+     * @return The converted array.
+     * @throws ParsingException if the input object is not a list or one of its items can't be parsed to a Long.
+     */
+    protected static long[] toLongArray(Object obj) {
+        var items = obj instanceof CompactList list ? list.toLongArray() : null;
+        if (items != null)
+            return items;
+
+        var list = toPrimitiveList(obj);
+        items = new long[list.size()];
+        for (int i = 0; i < items.length; i++)
+            items[i] = toPrimitive(list.get(i), "long", Parser::toLong);
+        return items;
+    }
+
+    /**
+     * Converts the given object to an array of doubles. A list kept as doubles, on the heap or off-heap, is copied
+     * without boxing its items.
+     *
+     * @param obj The object to be converted to an array.
+     * @return The converted array.
+     * @throws ParsingException if the input object is not a list or one of its items can't be parsed to a Double.
+     */
+    protected static double[] toDoubleArray(Object obj) {
+        var items = obj instanceof CompactList list ? list.toDoubleArray() : null;
+        if (items != null)
+            return items;
+
+        var list = toPrimitiveList(obj);
+        items = new double[list.size()];
+        for (int i = 0; i < items.length; i++)
+            items[i] = toPrimitive(list.get(i), "double", Parser::toDouble);
+        return items;
+    }
+
+    private static List<?> toPrimitiveList(Object obj) {
+        if (obj instanceof List<?> list)
+            return list;
+
+        throw new ParsingException("This object [" + obj + "] can't be list");
+    }
+
+    private static <T> T toPrimitive(Object item, String type, Function<Object, T> parser) {
+        if (item == null)
+            throw new ParsingException(parsingErrorMsg(null, type));
+
+        return parser.apply(item);
+    }
+
     /**
      * Convert the given object to a map of keys and values of the specified class.
      *
@@ -466,28 +552,21 @@ public class Parser {
      * @throws ParsingException If the conversion fails, or if the instance cannot be created.
      */
     private static <T> T toCustomObj(Object obj, T inst) {
-        var fields = inst.getClass().getDeclaredFields();
-        Map<String, Object> map;
-        try {
-            map = toMap(obj, Object.class);
-        } catch (ParsingException ignore) {
+        if (!(obj instanceof Map<?, ?> map))
             throw new ParsingException(parsingErrorMsg(obj, inst.getClass().toString()));
-        }
 
-        map = Helper.applyEnvironmentVariables(map);
+        var environments = Helper.configuredEnvironments();
 
-        for (Field field : fields) {
-            field.setAccessible(true);
+        for (FieldBinding binding : FIELD_BINDINGS.get(inst.getClass())) {
+            var field = binding.field();
             var name = field.getName();
             var type = field.getType();
-            var alisa = field.isAnnotationPresent(Alias.class) ?
-                    field.getAnnotation(Alias.class).value() : null;
+            var alisa = binding.alias();
 
-            String nameInYAML = null;
-            if ((alisa != null && map.containsKey(alisa)))
-                nameInYAML = alisa;
-            else if (map.containsKey(name))
-                nameInYAML = name;
+            var keyInMap = alisa != null ? Helper.findKey(map, alisa, environments) : Optional.empty();
+            if (keyInMap.isEmpty())
+                keyInMap = Helper.findKey(map, name, environments);
+            var nameInYAML = keyInMap.orElse(null);
 
             if (nameInYAML != null) {
                 if (type.isPrimitive())
@@ -495,7 +574,7 @@ public class Parser {
                             "at [" + name + " " + type.getName() + "]");
 
                 try {
-                    var value = to(map.get(nameInYAML), type, getListMapArgument(field, type));
+                    var value = to(map.get(nameInYAML), type, binding.listMapArgument());
                     field.set(inst, value);
                 } catch (ParsingException e) {
                     throw new ParsingException("Can't set this value [" + map.get(nameInYAML) + "] for this field [" +
@@ -528,6 +607,56 @@ public class Parser {
         }
     }
 
+    /**
+     * Returns the formatter of a date pattern, creating it only the first time the pattern is used.
+     *
+     * @param pattern the date pattern
+     * @return the formatter of the pattern
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    protected static DateTimeFormatter formatter(String pattern) {
+        var formatter = FORMATTERS.get(pattern);
+        if (formatter != null) {
+            return formatter;
+        }
+
+        if (FORMATTERS.size() >= MAX_CACHED_FORMATTERS) {
+            FORMATTERS.clear();
+        }
+        formatter = DateTimeFormatter.ofPattern(pattern);
+        FORMATTERS.put(pattern, formatter);
+        return formatter;
+    }
+
+    /**
+     * Looks up, ahead of the first conversion, the fields of a custom class and of the custom classes of its fields,
+     * so converting a value to one of them does not pay for the reflection.
+     *
+     * @param clazz the custom class
+     */
+    protected static void prepare(Class<?> clazz) {
+        prepare(clazz, new HashSet<>());
+    }
+
+    private static void prepare(Class<?> clazz, Set<Class<?>> prepared) {
+        if (!isCustomClass(clazz) || !prepared.add(clazz)) {
+            return;
+        }
+
+        for (FieldBinding binding : FIELD_BINDINGS.get(clazz)) {
+            prepare(binding.field().getType(), prepared);
+            if (binding.listMapArgument != null) {
+                prepare(binding.listMapArgument, prepared);
+            }
+        }
+    }
+
+    private static boolean isCustomClass(Class<?> clazz) {
+        return !parsingMap.containsKey(clazz) && !clazz.isPrimitive() && !clazz.isArray() && !clazz.isEnum()
+                && !clazz.isAssignableFrom(List.class) && !clazz.isAssignableFrom(Map.class)
+                && !clazz.getName().startsWith("java.");
+    }
+
     /**
      * This method retrieves the argument class type of List or Map generic type.
      *
@@ -549,4 +678,49 @@ public class Parser {
     private static String parsingErrorMsg(Object obj, String type) {
         return "Can't parse [" + obj + "] to be " + type;
     }
+
+    /**
+     * A field of a custom class, made accessible once, with its alias and the component type of a list or map field.
+     */
+    private static class FieldBinding {
+        private final Field field;
+        private final String alias;
+        private final Class<?> listMapArgument;
+        private final RuntimeException listMapArgumentFailure;
+
+        private FieldBinding(Field field) {
+            field.setAccessible(true);
+            this.field = field;
+            this.alias = field.isAnnotationPresent(Alias.class) ? field.getAnnotation(Alias.class).value() : null;
+
+            Class<?> argument = null;
+            RuntimeException failure = null;
+            try {
+                argument = getListMapArgument(field, field.getType());
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            this.listMapArgument = argument;
+            this.listMapArgumentFailure = failure;
+        }
+
+        private Field field() {
+            return field;
+        }
+
+        private String alias() {
+            return alias;
+        }
+
+        /**
+         * Returns the component type of a list or map field, failing the same way as the first lookup did if the
+         * field doesn't declare it.
+         */
+        private Class<?> listMapArgument() {
+            if (listMapArgumentFailure != null) {
+                throw listMapArgumentFailure;
+            }
+            return listMapArgument;
+        }
+    }
 }
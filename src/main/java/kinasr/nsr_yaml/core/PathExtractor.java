@@ -0,0 +1,405 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.InvalidKeyException;
+import kinasr.nsr_yaml.exception.ParsingException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the values of a few keys from a YAML document by walking its parse events, without building the tree of
+ * the whole document.
+ * <p>
+ * Only the values of the requested keys are constructed; every other subtree is skipped, except for the anchored
+ * nodes that an alias may refer to later. The walk stops as soon as every key has been found with no better match
+ * possible. When environment variables are applied, a key suffixed with an environment (`key@env`) is preferred over
+ * the plain key in the same order as {@link Helper#applyEnvironmentVariables(Map)}.
+ * <p>
+ * Keys that can only be reached through a merge key (`<<`) or through an alias to a node that could not be built are
+ * reported by {@link #needsFullLoad()}, so the caller can look them up in the fully loaded tree instead. A document
+ * that includes other files can't be streamed, since any value may come from an included file, so the walk stops at
+ * the first include and extracts nothing.
+ */
+class PathExtractor {
+    private final List<KeyPath> paths;
+    private final ObjMapper mapper;
+    private final List<String> environments;
+    private final Match[] matches;
+    private final Resolver resolver = new Resolver();
+    private final NodeConstructor constructor = YamlFactory.constructor();
+    private final Map<String, Node> anchors = new HashMap<>();
+    private Iterator<Event> events;
+    private boolean needsFullLoad;
+    private boolean includes;
+
+    /**
+     * Constructs a PathExtractor for the given keys.
+     *
+     * @param keys   the keys to extract, in the syntax supported by {@link ObjMapper}
+     * @param mapper the Object Mapper that decides whether environment variables are applied
+     */
+    protected PathExtractor(List<String> keys, ObjMapper mapper) {
+        this.paths = keys.stream().map(KeyPath::compile).toList();
+        this.mapper = mapper;
+        this.environments = mapper.appliesEnvironmentVariables() ?
+                ConfigHandler.getInstance().getEnvironments().orElse(List.of()) : List.of();
+        this.matches = new Match[paths.size()];
+    }
+
+    /**
+     * Extracts the values of the keys from the first document read by the reader.
+     *
+     * @param reader the reader of the YAML document
+     * @return the values of the found keys, by key
+     */
+    protected Map<String, Object> extract(Reader reader) {
+        events = YamlFactory.parse(reader).iterator();
+        next();
+
+        var event = next();
+        if (event.is(Event.ID.DocumentStart)) {
+            var cursors = new ArrayList<Cursor>();
+            for (int i = 0; i < paths.size(); i++) {
+                cursors.add(new Cursor(i, 0, new int[0]));
+            }
+            walk(next(), cursors);
+        }
+
+        var values = new LinkedHashMap<String, Object>();
+        if (includes) {
+            return values;
+        }
+        for (int i = 0; i < paths.size(); i++) {
+            if (matches[i] != null) {
+                values.put(paths.get(i).key(), matches[i].value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Whether some keys may have been missed because the document uses merge keys or aliases that could not be
+     * resolved while streaming, or includes other files.
+     */
+    protected boolean needsFullLoad() {
+        return needsFullLoad || includes;
+    }
+
+    /**
+     * Walks the node that starts with the given event, descending only into the children the cursors lead to.
+     */
+    private void walk(Event event, List<Cursor> cursors) {
+        if (cursors.isEmpty()) {
+            skip(event);
+            return;
+        }
+
+        var completed = cursors.stream().anyMatch(c -> c.depth == paths.get(c.path).size());
+        if (completed || event.is(Event.ID.Alias) || hasAnchor(event)) {
+            offerAll(build(event), cursors);
+        } else if (event.is(Event.ID.MappingStart)) {
+            walkMapping(cursors);
+        } else if (event.is(Event.ID.SequenceStart)) {
+            walkSequence(cursors);
+        }
+    }
+
+    private void walkMapping(List<Cursor> cursors) {
+        while (!isDone()) {
+            var keyEvent = next();
+            if (keyEvent.is(Event.ID.MappingEnd)) {
+                return;
+            }
+
+            String key = null;
+            if (keyEvent instanceof ScalarEvent scalar) {
+                key = scalar.getValue();
+            }
+            skip(keyEvent);
+
+            var valueEvent = next();
+            if (isMergeKey(keyEvent)) {
+                needsFullLoad = true;
+                skip(valueEvent);
+                continue;
+            }
+
+            walk(valueEvent, advance(cursors, key));
+        }
+    }
+
+    private void walkSequence(List<Cursor> cursors) {
+        var index = 0;
+
+        while (!isDone()) {
+            var event = next();
+            if (event.is(Event.ID.SequenceEnd)) {
+                return;
+            }
+
+            var matched = new ArrayList<Cursor>();
+            for (Cursor cursor : cursors) {
+                var path = paths.get(cursor.path);
+                if (path.isIndex(cursor.depth) && path.index(cursor.depth) == index) {
+                    matched.add(cursor.advance(0));
+                }
+            }
+
+            walk(event, matched);
+            index++;
+        }
+    }
+
+    /**
+     * Returns the cursors that continue into the value of the given map key.
+     */
+    private List<Cursor> advance(List<Cursor> cursors, String key) {
+        var matched = new ArrayList<Cursor>();
+        if (key == null) {
+            return matched;
+        }
+
+        for (Cursor cursor : cursors) {
+            var path = paths.get(cursor.path);
+            if (path.isIndex(cursor.depth)) {
+                continue;
+            }
+
+            var rank = rank(key, path.name(cursor.depth));
+            if (rank >= 0) {
+                matched.add(cursor.advance(rank));
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Ranks how well a map key matches a key of the path: 0 for the first environment, then the next environments,
+     * then the plain key; -1 if it does not match.
+     */
+    private int rank(String key, String name) {
+        for (int i = 0; i < environments.size(); i++) {
+            if (key.equals(name + "@" + environments.get(i))) {
+                return i;
+            }
+        }
+        return key.equals(name) ? environments.size() : -1;
+    }
+
+    /**
+     * Constructs a built node and offers its value, or the value of the remaining keys inside it, to every cursor.
+     */
+    private void offerAll(Node node, List<Cursor> cursors) {
+        if (node == null) {
+            needsFullLoad = true;
+            return;
+        }
+        if (includes) {
+            return;
+        }
+
+        var value = constructor.construct(node);
+        for (Cursor cursor : cursors) {
+            var path = paths.get(cursor.path);
+            try {
+                offer(cursor, cursor.depth == path.size() ? value : mapper.get(value, path, cursor.depth));
+            } catch (InvalidKeyException | ParsingException ignore) {
+                // The key does not exist inside this node
+            }
+        }
+    }
+
+    private void offer(Cursor cursor, Object value) {
+        var best = matches[cursor.path];
+        if (best == null || compare(cursor.ranks, best.ranks) <= 0) {
+            matches[cursor.path] = new Match(cursor.ranks, value);
+        }
+    }
+
+    /**
+     * Whether every key has been found with the best possible match, so the rest of the document can be ignored.
+     */
+    private boolean isDone() {
+        if (includes) {
+            return true;
+        }
+        for (Match match : matches) {
+            if (match == null) {
+                return false;
+            }
+            for (int rank : match.ranks) {
+                if (rank != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Consumes the node that starts with the given event, building only the anchored nodes inside it.
+     */
+    private void skip(Event event) {
+        if (hasAnchor(event)) {
+            build(event);
+            return;
+        }
+
+        if (event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart)) {
+            var child = next();
+            while (!child.is(Event.ID.MappingEnd) && !child.is(Event.ID.SequenceEnd)) {
+                skip(child);
+                child = next();
+            }
+        }
+    }
+
+    /**
+     * Builds the node that starts with the given event, the same way SnakeYAML's composer does.
+     *
+     * @return the node, or null if it refers to an anchor that was not built
+     */
+    private Node build(Event event) {
+        if (event instanceof AliasEvent alias) {
+            return anchors.get(alias.getAnchor());
+        }
+
+        if (event instanceof ScalarEvent scalar) {
+            var tag = scalar.getTag();
+            var resolved = tag == null || tag.equals("!");
+            var nodeTag = resolved ?
+                    resolver.resolve(NodeId.scalar, scalar.getValue(), scalar.getImplicit().canOmitTagInPlainScalar()) :
+                    new Tag(tag);
+            var node = new ScalarNode(nodeTag, resolved, scalar.getValue(),
+                    scalar.getStartMark(), scalar.getEndMark(), scalar.getScalarStyle());
+            register(scalar, node);
+            return node;
+        }
+
+        var start = (CollectionStartEvent) event;
+        var tag = start.getTag();
+        var resolved = tag == null || tag.equals("!");
+        var complete = true;
+
+        if (start.is(Event.ID.SequenceStart)) {
+            var nodeTag = resolved ? resolver.resolve(NodeId.sequence, null, start.getImplicit()) : new Tag(tag);
+            var node = new SequenceNode(nodeTag, resolved, new ArrayList<>(),
+                    start.getStartMark(), null, start.getFlowStyle());
+            register(start, node);
+
+            var child = next();
+            while (!child.is(Event.ID.SequenceEnd)) {
+                var item = build(child);
+                complete &= item != null;
+                if (item != null) {
+                    node.getValue().add(item);
+                }
+                child = next();
+            }
+            node.setEndMark(child.getEndMark());
+            return complete ? node : null;
+        }
+
+        var nodeTag = resolved ? resolver.resolve(NodeId.mapping, null, start.getImplicit()) : new Tag(tag);
+        var node = new MappingNode(nodeTag, resolved, new ArrayList<>(),
+                start.getStartMark(), null, start.getFlowStyle());
+        register(start, node);
+
+        var child = next();
+        while (!child.is(Event.ID.MappingEnd)) {
+            var key = build(child);
+            var value = build(next());
+            complete &= key != null && value != null;
+            if (key != null && value != null) {
+                if (key.getTag().equals(Tag.MERGE)) {
+                    node.setMerged(true);
+                }
+                node.getValue().add(new NodeTuple(key, value));
+            }
+            child = next();
+        }
+        node.setEndMark(child.getEndMark());
+        return complete ? node : null;
+    }
+
+    private void register(NodeEvent event, Node node) {
+        if (event.getAnchor() != null) {
+            anchors.put(event.getAnchor(), node);
+        }
+    }
+
+    private boolean isMergeKey(Event keyEvent) {
+        return keyEvent instanceof ScalarEvent scalar && scalar.getTag() == null && scalar.isPlain()
+                && Tag.MERGE.equals(resolver.resolve(NodeId.scalar, scalar.getValue(), true));
+    }
+
+    private static boolean hasAnchor(Event event) {
+        return !(event instanceof AliasEvent) && event instanceof NodeEvent node && node.getAnchor() != null;
+    }
+
+    private Event next() {
+        var event = events.next();
+        if (isInclude(event)) {
+            includes = true;
+        }
+        return event;
+    }
+
+    /**
+     * Whether the event is the `!include` tag or the `$include` key of an include.
+     */
+    private static boolean isInclude(Event event) {
+        if (event instanceof ScalarEvent scalar) {
+            return IncludeResolver.INCLUDE_TAG.equals(scalar.getTag())
+                    || IncludeResolver.INCLUDE_KEY.equals(scalar.getValue());
+        }
+        return event instanceof CollectionStartEvent start && IncludeResolver.INCLUDE_TAG.equals(start.getTag());
+    }
+
+    private static int compare(int[] first, int[] second) {
+        for (int i = 0; i < Math.max(first.length, second.length); i++) {
+            var a = i < first.length ? first[i] : 0;
+            var b = i < second.length ? second[i] : 0;
+            if (a != b) {
+                return Integer.compare(a, b);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A position in one of the paths: how many of its segments have been matched, and how well each one matched.
+     */
+    private record Cursor(int path, int depth, int[] ranks) {
+        private Cursor advance(int rank) {
+            var next = new int[ranks.length + 1];
+            System.arraycopy(ranks, 0, next, 0, ranks.length);
+            next[ranks.length] = rank;
+            return new Cursor(path, depth + 1, next);
+        }
+    }
+
+    /**
+     * The best value found so far for a path, with the ranks of the keys it was found through.
+     */
+    private record Match(int[] ranks, Object value) {
+    }
+}
@@ -0,0 +1,22 @@
+package kinasr.nsr_yaml.core;
+
+import java.time.Duration;
+
+/**
+ * A file, key or binding warmed up by {@link YAML#preload(PreloadManifest)}, together with how long it took.
+ *
+ * @param filePath the file path of the YAML file
+ * @param key      the key read from the file, or null for the load of the file itself
+ * @param type     the class the value of the key was converted to, or null if it was only read
+ * @param time     how long the warm-up took, which is close to zero if it was already warm
+ * @param failure  why the warm-up failed, or null if it succeeded
+ */
+public record PreloadItem(String filePath, String key, Class<?> type, Duration time, RuntimeException failure) {
+
+    /**
+     * Returns whether the warm-up succeeded.
+     */
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+}
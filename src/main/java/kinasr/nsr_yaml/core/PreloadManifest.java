@@ -0,0 +1,89 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.InvalidKeyException;
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declares the YAML files, keys and bindings to warm up at startup using {@link YAML#preload(PreloadManifest)}.
+ * <p>
+ * Every declared file is loaded into the loaded-files cache. A declared key is then read from its file, which
+ * resolves its environment overrides and parses the lazily loaded section that holds it, and a declared binding also
+ * converts the value of the key to its class, so the reflection on that class is done before the first real read.
+ */
+public class PreloadManifest {
+    private final List<Target> targets = new ArrayList<>();
+
+    /**
+     * Creates an empty manifest.
+     */
+    public PreloadManifest() {
+    }
+
+    /**
+     * Declares a file to load.
+     *
+     * @param filePath the file path of the YAML file
+     * @return this manifest
+     */
+    public PreloadManifest addFile(String filePath) {
+        return add(filePath, null, null);
+    }
+
+    /**
+     * Declares a key to read from a file, which declares the file too.
+     *
+     * @param filePath the file path of the YAML file
+     * @param key      the key to read, such as `a.b[2].c`
+     * @return this manifest
+     */
+    public PreloadManifest addKey(String filePath, String key) {
+        validateKey(key);
+        return add(filePath, key, null);
+    }
+
+    /**
+     * Declares a key to read from a file and to convert to a class, which declares the file too.
+     *
+     * @param filePath the file path of the YAML file
+     * @param key      the key to read, such as `a.b[2].c`
+     * @param type     the class to convert the value of the key to
+     * @return this manifest
+     */
+    public PreloadManifest addBinding(String filePath, String key, Class<?> type) {
+        validateKey(key);
+        if (type == null) {
+            throw new YAMLFileException("Type can't be null");
+        }
+        return add(filePath, key, type);
+    }
+
+    /**
+     * Returns the declared files, keys and bindings, in the order they were declared.
+     */
+    protected List<Target> targets() {
+        return List.copyOf(targets);
+    }
+
+    private PreloadManifest add(String filePath, String key, Class<?> type) {
+        if (filePath == null || filePath.isBlank()) {
+            throw new YAMLFileException("File path can't be null or empty");
+        }
+        targets.add(new Target(filePath, key, type));
+        return this;
+    }
+
+    private static void validateKey(String key) {
+        if (key == null || key.isBlank()) {
+            throw new InvalidKeyException("Key can't be null or empty");
+        }
+    }
+
+    /**
+     * A declared file, with the key to read from it and the class to convert its value to, when they are declared.
+     */
+    protected record Target(String filePath, String key, Class<?> type) {
+    }
+}
@@ -0,0 +1,28 @@
+package kinasr.nsr_yaml.core;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The result of {@link YAML#preload(PreloadManifest)}.
+ *
+ * @param configurationTime how long reading the library configuration took
+ * @param items             the warmed-up files, each followed by its keys and bindings, in the order of the manifest
+ * @param totalTime         how long the whole warm-up took
+ */
+public record PreloadReport(Duration configurationTime, List<PreloadItem> items, Duration totalTime) {
+
+    /**
+     * Returns the items that failed to warm up.
+     */
+    public List<PreloadItem> failures() {
+        return items.stream().filter(item -> !item.isSuccessful()).toList();
+    }
+
+    /**
+     * Returns whether every item warmed up successfully.
+     */
+    public boolean isSuccessful() {
+        return items.stream().allMatch(PreloadItem::isSuccessful);
+    }
+}
@@ -0,0 +1,100 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Warms up the files, keys and bindings of a {@link PreloadManifest}.
+ * <p>
+ * The library configuration is read first, then every file is loaded on the executor, in parallel with the other
+ * files, and its keys and bindings are resolved once it is loaded. A failure is reported with its item instead of
+ * stopping the warm-up, so one missing file does not leave the others cold.
+ */
+class Preloader {
+    private final Executor executor;
+
+    /**
+     * Constructs a Preloader.
+     *
+     * @param executor the executor that loads the files
+     */
+    protected Preloader(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Warms up the targets of the manifest.
+     *
+     * @param manifest the files, keys and bindings to warm up
+     * @return the time taken by every item
+     */
+    protected PreloadReport preload(PreloadManifest manifest) {
+        var start = System.nanoTime();
+        ConfigHandler.getInstance().preload();
+        var configurationTime = Duration.ofNanos(System.nanoTime() - start);
+
+        var targetsByFile = new LinkedHashMap<String, List<PreloadManifest.Target>>();
+        for (PreloadManifest.Target target : manifest.targets()) {
+            targetsByFile.computeIfAbsent(target.filePath(), filePath -> new ArrayList<>()).add(target);
+        }
+
+        var futures = new ArrayList<CompletableFuture<List<PreloadItem>>>();
+        targetsByFile.forEach((filePath, targets) ->
+                futures.add(CompletableFuture.supplyAsync(() -> preload(filePath, targets), executor)));
+
+        var items = new ArrayList<PreloadItem>();
+        futures.forEach(future -> items.addAll(future.join()));
+        return new PreloadReport(configurationTime, List.copyOf(items), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Loads a file, then reads its keys and converts its bindings.
+     */
+    private static List<PreloadItem> preload(String filePath, List<PreloadManifest.Target> targets) {
+        var items = new ArrayList<PreloadItem>();
+
+        var start = System.nanoTime();
+        YAMLReader reader = null;
+        RuntimeException loadFailure = null;
+        try {
+            var data = YAMLFileLoader.load(filePath);
+            if (data == null) {
+                throw new YAMLFileException("Cannot read empty file at path: " + filePath);
+            }
+            reader = new YAMLReader(data, new ObjMapper(true));
+        } catch (RuntimeException e) {
+            loadFailure = e;
+        }
+        items.add(new PreloadItem(filePath, null, null, Duration.ofNanos(System.nanoTime() - start), loadFailure));
+
+        for (PreloadManifest.Target target : targets) {
+            if (target.key() == null) {
+                continue;
+            }
+
+            start = System.nanoTime();
+            var failure = loadFailure;
+            if (reader != null) {
+                try {
+                    var value = reader.get(target.key());
+                    if (target.type() != null) {
+                        Parser.prepare(target.type());
+                        value.as(target.type());
+                    }
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            items.add(new PreloadItem(filePath, target.key(), target.type(),
+                    Duration.ofNanos(System.nanoTime() - start), failure));
+        }
+
+        return items;
+    }
+}
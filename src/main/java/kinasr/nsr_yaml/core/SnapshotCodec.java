@@ -0,0 +1,311 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Encodes a parsed YAML tree into the compact binary format of the `.nsrc` snapshot files, and decodes it back.
+ * <p>
+ * A snapshot starts with a header made of the `NSRC` magic number, the format version and the SHA-256 hash of the
+ * YAML content it was built from, followed by the tree. Every value is a tag byte followed by its content. Strings
+ * are written once and referred to by index afterwards, and a collection reached twice through an alias is written
+ * once and referred to by index, so shared and recursive nodes keep their identity.
+ * <p>
+ * Only the types SnakeYAML constructs for the standard tags are supported: maps, lists, sets, strings, booleans,
+ * numbers, timestamps and binary data.
+ */
+class SnapshotCodec {
+    private static final int MAGIC = 0x4E535243;
+    private static final int VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte BIG_INTEGER = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte STRING = 7;
+    private static final byte STRING_REFERENCE = 8;
+    private static final byte MAP = 9;
+    private static final byte LIST = 10;
+    private static final byte SET = 11;
+    private static final byte DATE = 12;
+    private static final byte BINARY = 13;
+    private static final byte COLLECTION_REFERENCE = 14;
+
+    private SnapshotCodec() {
+    }
+
+    /**
+     * Encodes a tree into a snapshot.
+     *
+     * @param contentHash the hash of the YAML content the tree was parsed from
+     * @param tree        the parsed tree
+     * @return the snapshot
+     * @throws YAMLFileException if the tree contains a type that is not supported
+     */
+    protected static byte[] encode(byte[] contentHash, Object tree) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(contentHash.length);
+            out.write(contentHash);
+            new Encoder(out).write(tree);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the header of a snapshot and tells whether it was built from the content with the given hash by this
+     * version of the format. The buffer is left at the start of the tree.
+     *
+     * @param snapshot    the snapshot
+     * @param contentHash the hash of the current YAML content
+     * @return true if the snapshot can be decoded in place of parsing the content
+     */
+    protected static boolean matches(ByteBuffer snapshot, byte[] contentHash) {
+        try {
+            if (snapshot.getInt() != MAGIC || snapshot.getInt() != VERSION) {
+                return false;
+            }
+
+            var length = snapshot.getInt();
+            if (length != contentHash.length || length > snapshot.remaining()) {
+                return false;
+            }
+
+            var hash = new byte[length];
+            snapshot.get(hash);
+            return Arrays.equals(hash, contentHash);
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decodes the tree of a snapshot whose header has been read by {@link #matches(ByteBuffer, byte[])}. Every count
+     * and length is checked against the remaining bytes before anything is allocated, so a corrupted snapshot fails
+     * with an exception instead of exhausting the memory.
+     *
+     * @param snapshot the snapshot, backed by an array
+     * @param interner the function that returns the instance to use for a decoded string
+     * @return the tree
+     * @throws YAMLFileException if the snapshot is corrupted
+     */
+    protected static Object decode(ByteBuffer snapshot, UnaryOperator<String> interner) {
+        try {
+            return new Decoder(snapshot, interner).read();
+        } catch (YAMLFileException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new YAMLFileException("Corrupted snapshot", e);
+        }
+    }
+
+    private static class Encoder {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<Object, Integer> collections = new IdentityHashMap<>();
+
+        private Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void write(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof Boolean bool) {
+                out.writeByte(bool ? TRUE : FALSE);
+            } else if (value instanceof String string) {
+                writeString(string);
+            } else if (value.getClass() == Integer.class) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) value);
+            } else if (value.getClass() == Long.class) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value.getClass() == Double.class) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value.getClass() == BigInteger.class) {
+                out.writeByte(BIG_INTEGER);
+                writeBytes(((BigInteger) value).toByteArray());
+            } else if (value.getClass() == Date.class) {
+                out.writeByte(DATE);
+                out.writeLong(((Date) value).getTime());
+            } else if (value instanceof byte[] binary) {
+                out.writeByte(BINARY);
+                writeBytes(binary);
+            } else if (value instanceof Map<?, ?> || value instanceof List<?> || value instanceof Set<?>) {
+                writeCollection(value);
+            } else {
+                throw new YAMLFileException("Can't write a snapshot of [" + value.getClass().getName() + "]");
+            }
+        }
+
+        private void writeCollection(Object value) throws IOException {
+            var index = collections.get(value);
+            if (index != null) {
+                out.writeByte(COLLECTION_REFERENCE);
+                out.writeInt(index);
+                return;
+            }
+            collections.put(value, collections.size());
+
+            if (value instanceof Map<?, ?> map) {
+                out.writeByte(MAP);
+                out.writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    write(entry.getKey());
+                    write(entry.getValue());
+                }
+                return;
+            }
+
+            var collection = (Collection<?>) value;
+            out.writeByte(value instanceof List<?> ? LIST : SET);
+            out.writeInt(collection.size());
+            for (Object item : collection) {
+                write(item);
+            }
+        }
+
+        private void writeString(String string) throws IOException {
+            var index = strings.get(string);
+            if (index != null) {
+                out.writeByte(STRING_REFERENCE);
+                out.writeInt(index);
+                return;
+            }
+
+            strings.put(string, strings.size());
+            out.writeByte(STRING);
+            writeBytes(string.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static class Decoder {
+        private final ByteBuffer in;
+        private final UnaryOperator<String> interner;
+        private final List<String> strings = new ArrayList<>();
+        private final List<Object> collections = new ArrayList<>();
+
+        private Decoder(ByteBuffer in, UnaryOperator<String> interner) {
+            this.in = in;
+            this.interner = interner;
+        }
+
+        private Object read() {
+            var tag = in.get();
+            return switch (tag) {
+                case NULL -> null;
+                case TRUE -> Boolean.TRUE;
+                case FALSE -> Boolean.FALSE;
+                case INTEGER -> in.getInt();
+                case LONG -> in.getLong();
+                case DOUBLE -> in.getDouble();
+                case BIG_INTEGER -> new BigInteger(readBytes());
+                case DATE -> new Date(in.getLong());
+                case BINARY -> readBytes();
+                case STRING -> readString();
+                case STRING_REFERENCE -> strings.get(in.getInt());
+                case COLLECTION_REFERENCE -> collections.get(in.getInt());
+                case MAP -> readMap();
+                case LIST -> readList();
+                case SET -> readSet();
+                default -> throw new YAMLFileException("Corrupted snapshot, unknown tag [" + tag + "]");
+            };
+        }
+
+        private Map<Object, Object> readMap() {
+            var size = count(2);
+            var map = new LinkedHashMap<>(capacity(size));
+            collections.add(map);
+            for (int i = 0; i < size; i++) {
+                var key = read();
+                map.put(key, read());
+            }
+            return map;
+        }
+
+        private List<Object> readList() {
+            var size = count(1);
+            var list = new ArrayList<>(size);
+            collections.add(list);
+            for (int i = 0; i < size; i++) {
+                list.add(read());
+            }
+            return list;
+        }
+
+        private Set<Object> readSet() {
+            var size = count(1);
+            var set = new LinkedHashSet<>(capacity(size));
+            collections.add(set);
+            for (int i = 0; i < size; i++) {
+                set.add(read());
+            }
+            return set;
+        }
+
+        private String readString() {
+            var length = count(1);
+            var string = interner.apply(
+                    new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8));
+            in.position(in.position() + length);
+            strings.add(string);
+            return string;
+        }
+
+        private byte[] readBytes() {
+            var bytes = new byte[count(1)];
+            in.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Reads a count of items that take at least the given number of bytes each, and checks that they fit in the
+         * rest of the snapshot.
+         */
+        private int count(int minItemBytes) {
+            var count = in.getInt();
+            if (count < 0 || count > in.remaining() / minItemBytes) {
+                throw new YAMLFileException("Corrupted snapshot, invalid size [" + count + "]");
+            }
+            return count;
+        }
+
+        private static int capacity(int size) {
+            return (int) (size / 0.75f) + 1;
+        }
+    }
+}
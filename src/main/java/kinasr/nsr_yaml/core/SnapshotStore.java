@@ -0,0 +1,161 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * Keeps a `.nsrc` snapshot of every parsed YAML file in a directory, so the next JVM that reads an unchanged file
+ * decodes its snapshot instead of parsing the text again.
+ * <p>
+ * The snapshot of a file is named after its absolute path and holds the SHA-256 hash of the content it was built
+ * from; it is only used while the content of the file has the same hash. Snapshots are written atomically, and a
+ * snapshot that can't be read or written is ignored in favor of parsing the file.
+ */
+class SnapshotStore {
+    private static final String EXTENSION = ".nsrc";
+
+    private final Path directory;
+
+    /**
+     * Constructs a SnapshotStore that keeps its snapshots in the given directory, which is created if needed.
+     *
+     * @param directory the snapshot directory
+     */
+    protected SnapshotStore(Path directory) {
+        try {
+            this.directory = Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new YAMLFileException("Can't create the snapshot directory [" + directory + "]", e);
+        }
+    }
+
+    /**
+     * Returns the tree of a YAML file, decoded from its snapshot if the snapshot matches the content of the file, or
+     * parsed by the parser otherwise, in which case a new snapshot is written.
+     *
+     * @param filePath the file path of the YAML file
+     * @param parser   the function that parses the content of the file
+     * @return the tree of the file
+     */
+    protected Object load(String filePath, Function<Reader, Object> parser) {
+        var content = readContent(filePath);
+        var contentHash = sha256(content);
+        var snapshotPath = snapshotPath(filePath);
+
+        var tree = readSnapshot(snapshotPath, contentHash);
+        if (tree != null) {
+            return tree;
+        }
+
+        var parsed = parser.apply(openReader(filePath, content));
+        writeSnapshot(snapshotPath, contentHash, parsed);
+        return parsed;
+    }
+
+    /**
+     * Returns the path of the snapshot of a YAML file.
+     *
+     * @param filePath the file path of the YAML file
+     * @return the path of its snapshot
+     */
+    protected Path snapshotPath(String filePath) {
+        var path = Path.of(filePath).toAbsolutePath().normalize();
+        var pathHash = HexFormat.of().formatHex(sha256(path.toString().getBytes(StandardCharsets.UTF_8)), 0, 8);
+        return directory.resolve(path.getFileName() + "-" + pathHash + EXTENSION);
+    }
+
+    /**
+     * Opens a reader of the content of a file, which is hashed as it is stored, compressed or not.
+     */
+    private static Reader openReader(String filePath, byte[] content) {
+        if (!YAMLFileLoader.isCompressed(filePath)) {
+            return new ByteBufferReader(ByteBuffer.wrap(content));
+        }
+
+        try {
+            return YAMLFileLoader.openCompressedReader(new ByteArrayInputStream(content));
+        } catch (IOException e) {
+            throw new YAMLFileException("Error reading YAML file: " + filePath, e);
+        }
+    }
+
+    private static byte[] readContent(String filePath) {
+        try {
+            return Files.readAllBytes(Path.of(filePath));
+        } catch (NoSuchFileException | InvalidPathException e) {
+            throw new YAMLFileException("Can't find this file [" + filePath + "]", e);
+        } catch (IOException e) {
+            throw new YAMLFileException("Error reading YAML file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Decodes the snapshot if it exists and matches the content hash, or returns null.
+     */
+    private static Object readSnapshot(Path snapshotPath, byte[] contentHash) {
+        try {
+            var snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+            if (SnapshotCodec.matches(snapshot, contentHash)) {
+                return SnapshotCodec.decode(snapshot, YamlFactory.interner());
+            }
+        } catch (IOException | YAMLFileException ignore) {
+            // A missing or corrupted snapshot is replaced by parsing the file
+        }
+        return null;
+    }
+
+    /**
+     * Writes the snapshot into a temporary file, then moves it in place so a concurrent reader never sees it partly
+     * written.
+     */
+    private void writeSnapshot(Path snapshotPath, byte[] contentHash, Object tree) {
+        if (tree == null) {
+            return;
+        }
+
+        Path temporary = null;
+        try {
+            var snapshot = SnapshotCodec.encode(contentHash, tree);
+            temporary = Files.createTempFile(directory, snapshotPath.getFileName().toString(), ".tmp");
+            Files.write(temporary, snapshot);
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UncheckedIOException | YAMLFileException ignore) {
+            // The file is parsed again on the next start
+            deleteQuietly(temporary);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignore) {
+            // Nothing else can be done about a leftover temporary file
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe pool of strings shared by every loaded tree, so equal keys and short values parsed from different
+ * files end up as one String instance.
+ * <p>
+ * The pool is bounded: once it holds its maximum number of strings, new strings are no longer added while the pooled
+ * ones are still shared. It is emptied when the loaded-files cache is cleared.
+ */
+class StringPool {
+    private static final int MAX_ENTRIES = 100_000;
+
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Returns the pooled instance equal to the string, adding the string to the pool if it is not there yet.
+     *
+     * @param value the string to intern
+     * @return the pooled instance, or the string itself if it is the first of its value or the pool is full
+     */
+    protected String intern(String value) {
+        var pooled = strings.get(value);
+        if (pooled == null) {
+            if (strings.size() >= MAX_ENTRIES) {
+                return value;
+            }
+            pooled = strings.putIfAbsent(value, value);
+            if (pooled == null) {
+                return value;
+            }
+        }
+
+        if (pooled != value) {
+            savedBytes.add(TreeSizeEstimator.stringSize(value));
+        }
+        return pooled;
+    }
+
+    /**
+     * Returns the number of pooled strings.
+     */
+    protected long size() {
+        return strings.size();
+    }
+
+    /**
+     * Returns the estimated number of bytes of the duplicate strings replaced by a pooled instance so far.
+     */
+    protected long savedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Removes every pooled string.
+     */
+    protected void clear() {
+        strings.clear();
+    }
+}
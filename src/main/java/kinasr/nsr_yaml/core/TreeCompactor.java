@@ -0,0 +1,123 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts a tree parsed by SnakeYAML into the immutable {@link CompactMap} and {@link CompactList} structures.
+ * <p>
+ * Map keys are converted to strings, as they are when a key is looked up, and a node shared through a YAML alias is
+ * converted once so it stays shared. Lists long enough are kept off-heap, as described by {@link CompactList}. A
+ * recursive tree, whose node contains itself through an alias, can't be built
+ * from immutable nodes and is returned as it is.
+ */
+class TreeCompactor {
+    private final Map<Object, Object> converted = new IdentityHashMap<>();
+    private final Set<Object> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final int minOffHeapSize;
+
+    private TreeCompactor(int minOffHeapSize) {
+        this.minOffHeapSize = minOffHeapSize;
+    }
+
+    /**
+     * Converts a parsed tree into its compact form, keeping every list on the heap.
+     *
+     * @param tree the parsed tree
+     * @return the compact tree, or the tree itself if it is recursive
+     */
+    protected static Object compact(Object tree) {
+        return compact(tree, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Converts a parsed tree into its compact form, keeping off-heap the lists of at least the given number of items.
+     *
+     * @param tree           the parsed tree
+     * @param minOffHeapSize the minimum number of items of a list kept off-heap
+     * @return the compact tree, or the tree itself if it is recursive
+     */
+    protected static Object compact(Object tree, int minOffHeapSize) {
+        try {
+            return new TreeCompactor(minOffHeapSize).convert(tree);
+        } catch (RecursiveTreeException e) {
+            return tree;
+        }
+    }
+
+    private Object convert(Object node) {
+        if (!(node instanceof Map<?, ?>) && !(node instanceof List<?>) || node instanceof CompactMap
+                || node instanceof CompactList) {
+            return node;
+        }
+
+        var done = converted.get(node);
+        if (done != null) {
+            return done;
+        }
+        if (!inProgress.add(node)) {
+            throw new RecursiveTreeException();
+        }
+
+        var result = node instanceof Map<?, ?> map ? convertMap(map) : convertList((List<?>) node);
+        inProgress.remove(node);
+        converted.put(node, result);
+        return result;
+    }
+
+    private CompactMap convertMap(Map<?, ?> map) {
+        var keys = new String[map.size()];
+        var values = new Object[map.size()];
+        var index = 0;
+        var stringKeys = true;
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            stringKeys &= entry.getKey() instanceof String;
+            keys[index] = String.valueOf(entry.getKey());
+            values[index] = convert(entry.getValue());
+            index++;
+        }
+
+        if (!stringKeys) {
+            return distinct(keys, values);
+        }
+        return new CompactMap(keys, values);
+    }
+
+    /**
+     * Builds a map from keys that may repeat once converted to strings, such as `1` and `"1"`, keeping the last value
+     * as a map being filled in order would.
+     */
+    private static CompactMap distinct(String[] keys, Object[] values) {
+        var distinct = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < keys.length; i++) {
+            distinct.put(keys[i], values[i]);
+        }
+        if (distinct.size() == keys.length) {
+            return new CompactMap(keys, values);
+        }
+        return new CompactMap(distinct.keySet().toArray(new String[0]), distinct.values().toArray());
+    }
+
+    private CompactList convertList(List<?> list) {
+        var items = new Object[list.size()];
+        var index = 0;
+        for (Object item : list) {
+            items[index++] = convert(item);
+        }
+        return CompactList.of(items, minOffHeapSize);
+    }
+
+    /**
+     * Thrown when a node contains itself, to stop the conversion.
+     */
+    private static class RecursiveTreeException extends RuntimeException {
+        private RecursiveTreeException() {
+            super(null, null, false, false);
+        }
+    }
+}
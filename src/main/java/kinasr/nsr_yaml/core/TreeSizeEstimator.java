@@ -0,0 +1,256 @@
+package kinasr.nsr_yaml.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Estimates the number of bytes retained by a parsed YAML tree, and counts its nodes on the way.
+ * <p>
+ * The estimate assumes a 64-bit JVM with compressed references, and counts a map or list shared through YAML anchors
+ * once, while a scalar is counted every time it occurs. It is meant for sizing the cache, not as an exact measurement.
+ * A single walk of the tree gives both the estimate and the {@link TreeStats} of the tree, so the statistics cost
+ * nothing more than the estimate the cache needs anyway.
+ */
+class TreeSizeEstimator {
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private TreeSizeEstimator() {
+    }
+
+    /**
+     * Estimates the number of bytes retained by the given tree.
+     *
+     * @param tree the parsed YAML tree
+     * @return the estimated number of retained bytes
+     */
+    protected static long estimate(Object tree) {
+        return new Walk().size(tree);
+    }
+
+    /**
+     * Walks the given tree to count its nodes and estimate its retained bytes.
+     *
+     * @param tree        the parsed YAML tree
+     * @param parseTime   how long the tree took to parse
+     * @param sourceBytes the size of the source the tree was parsed from, or -1 if it is unknown
+     * @return the statistics of the tree
+     */
+    protected static TreeStats stats(Object tree, Duration parseTime, long sourceBytes) {
+        var walk = new Walk();
+        var retainedBytes = walk.size(tree);
+        return new TreeStats(walk.nodes, walk.maxDepth, walk.scalarsByType(), retainedBytes, parseTime, sourceBytes);
+    }
+
+    /**
+     * Estimates the size of a String, which holds a byte array of one byte per Latin-1 character or two otherwise.
+     */
+    protected static long stringSize(String str) {
+        var bytesPerChar = str.chars().allMatch(c -> c < 256) ? 1 : 2;
+        return align(OBJECT_HEADER + 12L) + array(str.length(), bytesPerChar);
+    }
+
+    private static long scalarSize(Object obj) {
+        if (obj instanceof Integer || obj instanceof Float || obj instanceof Short || obj instanceof Byte) {
+            return align(OBJECT_HEADER + 4L);
+        }
+        if (obj instanceof Long || obj instanceof Double) {
+            return align(OBJECT_HEADER + 8L);
+        }
+        if (obj instanceof BigInteger bigInteger) {
+            return align(OBJECT_HEADER + 24L) + array((bigInteger.bitLength() + 31) / 32, 4);
+        }
+        if (obj instanceof BigDecimal bigDecimal) {
+            return align(OBJECT_HEADER + 20L) + scalarSize(bigDecimal.unscaledValue());
+        }
+        if (obj instanceof byte[] bytes) {
+            return array(bytes.length, 1);
+        }
+
+        return align(OBJECT_HEADER + 12L);
+    }
+
+    private static int tableCapacity(int size) {
+        var capacity = 16;
+        while (capacity * 0.75 < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long array(long length, int elementSize) {
+        return align(ARRAY_HEADER + length * elementSize);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * The state of a single walk of a tree: the maps and lists already visited, the ones still to walk, kept on a
+     * stack of their own so a deeply nested tree can't overflow the call stack, and the counters of the statistics.
+     */
+    private static final class Walk {
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Deque<Pending> pending = new ArrayDeque<>();
+        private final Map<Class<?>, long[]> scalarsByClass = new HashMap<>();
+        private Class<?> lastScalarClass;
+        private long[] lastScalarCount;
+        private long nulls;
+        private long nodes;
+        private int maxDepth;
+
+        private long size(Object tree) {
+            var size = node(tree, 1);
+            while (!pending.isEmpty()) {
+                var next = pending.pop();
+                size += containerSize(next.container(), next.depth());
+            }
+            return size;
+        }
+
+        /**
+         * Counts a node and returns the size of a scalar, or queues a map or list that was not visited yet.
+         */
+        private long node(Object obj, int depth) {
+            if (obj instanceof Map<?, ?> || obj instanceof Collection<?>) {
+                if (visited.add(obj)) {
+                    count(depth);
+                    pending.push(new Pending(obj, depth));
+                }
+                return 0;
+            }
+
+            count(depth);
+            countScalars(obj, 1);
+            if (obj == null || obj instanceof Boolean) {
+                return 0;
+            }
+            if (obj instanceof String str) {
+                return stringSize(str);
+            }
+            return scalarSize(obj);
+        }
+
+        /**
+         * Returns the size of a map or list without its children, which are counted and queued.
+         */
+        private long containerSize(Object obj, int depth) {
+            var childDepth = depth + 1;
+
+            if (obj instanceof LazyMap map) {
+                long size = align(OBJECT_HEADER + 6L * REFERENCE + 5) + 3 * array(map.size(), REFERENCE)
+                        + 2 * array(map.size(), 4) + (map.tableLength() > 0 ? array(map.tableLength(), 4) : 0)
+                        + array(map.sourceLength(), 1);
+                for (String key : map.keySet()) {
+                    size += stringSize(key);
+                }
+                var values = new long[1];
+                map.forEachParsedValue(value -> values[0] += node(value, childDepth));
+                return size + values[0];
+            }
+
+            if (obj instanceof CompactMap map) {
+                long size = align(OBJECT_HEADER + 3L * REFERENCE + 1) + 2 * array(map.size(), REFERENCE)
+                        + (map.tableLength() > 0 ? array(map.tableLength(), 4) : 0);
+                for (Map.Entry<String, Object> entry : map.entrySet()) {
+                    size += stringSize(entry.getKey()) + node(entry.getValue(), childDepth);
+                }
+                return size;
+            }
+
+            if (obj instanceof CompactList list) {
+                long size = list.shallowSize();
+                if (!CompactList.isPacked(list)) {
+                    for (Object item : list) {
+                        size += node(item, childDepth);
+                    }
+                } else if (!list.isEmpty()) {
+                    nodes += list.size();
+                    maxDepth = Math.max(maxDepth, childDepth);
+                    countScalars(list.get(0), list.size());
+                }
+                return size;
+            }
+
+            if (obj instanceof Map<?, ?> map) {
+                long size = align(OBJECT_HEADER + 6L * REFERENCE) + array(tableCapacity(map.size()), REFERENCE);
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    size += align(OBJECT_HEADER + 6L * REFERENCE);
+                    size += keySize(entry.getKey()) + node(entry.getValue(), childDepth);
+                }
+                return size;
+            }
+
+            var collection = (Collection<?>) obj;
+            long size = align(OBJECT_HEADER + 2L * REFERENCE) + array(collection.size(), REFERENCE);
+            for (Object item : collection) {
+                size += node(item, childDepth);
+            }
+            return size;
+        }
+
+        /**
+         * Estimates the size of a map key, which is not a node of the tree.
+         */
+        private long keySize(Object key) {
+            if (key == null || key instanceof Boolean) {
+                return 0;
+            }
+            if (key instanceof String str) {
+                return stringSize(str);
+            }
+            return scalarSize(key);
+        }
+
+        private void count(int depth) {
+            nodes++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        /**
+         * Counts scalars by class, remembering the last class counted since the scalars of a tree are mostly of a
+         * few classes.
+         */
+        private void countScalars(Object scalar, long count) {
+            if (scalar == null) {
+                nulls += count;
+                return;
+            }
+
+            var scalarClass = scalar.getClass();
+            if (scalarClass != lastScalarClass) {
+                lastScalarClass = scalarClass;
+                lastScalarCount = scalarsByClass.computeIfAbsent(scalarClass, key -> new long[1]);
+            }
+            lastScalarCount[0] += count;
+        }
+
+        private Map<String, Long> scalarsByType() {
+            var scalarsByType = new TreeMap<String, Long>();
+            scalarsByClass.forEach((scalarClass, count) ->
+                    scalarsByType.merge(scalarClass.getSimpleName(), count[0], Long::sum));
+            if (nulls > 0) {
+                scalarsByType.put("null", nulls);
+            }
+            return Collections.unmodifiableMap(scalarsByType);
+        }
+    }
+
+    /**
+     * A map or list waiting to be walked, with its depth.
+     */
+    private record Pending(Object container, int depth) {
+    }
+}
@@ -0,0 +1,22 @@
+package kinasr.nsr_yaml.core;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The shape and estimated footprint of a parsed YAML tree.
+ * <p>
+ * Maps, lists and scalars are nodes, while map keys are not. A map or list shared through YAML anchors is counted
+ * once. The values of a lazily loaded file that were not read yet are not part of its tree, so they are not counted.
+ *
+ * @param nodes         the number of maps, lists and scalars of the tree
+ * @param maxDepth      the depth of the deepest node, the root being at depth 1, or 0 for an empty tree
+ * @param scalarsByType the number of scalars by the simple name of their class, such as `String` or `Integer`, with
+ *                      null values counted as `null`
+ * @param retainedBytes the estimated number of bytes retained by the tree
+ * @param parseTime     how long the tree took to parse, or zero if it was not parsed by the cache
+ * @param sourceBytes   the size of the source the tree was parsed from, or -1 if it is unknown
+ */
+public record TreeStats(long nodes, int maxDepth, Map<String, Long> scalarsByType, long retainedBytes,
+                        Duration parseTime, long sourceBytes) {
+}
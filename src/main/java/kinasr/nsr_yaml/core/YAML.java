@@ -1,6 +1,23 @@
 package kinasr.nsr_yaml.core;
 
+import kinasr.nsr_yaml.exception.InvalidKeyException;
 import kinasr.nsr_yaml.exception.YAMLFileException;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * YAML Class
@@ -40,6 +57,590 @@ public class YAML {
         return new YAMLReader(fileData, new ObjMapper(substituteEnvironmentVariables));
     }
 
+    /**
+     * Reads a YAML file and returns a `YAMLReader` instance.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param path The path of the YAML file.
+     * @return A `YAMLReader` instance representing the contents of the YAML file.
+     * @see #read(Path, boolean)
+     */
+    public static YAMLReader read(Path path) {
+        return read(path, true);
+    }
+
+    /**
+     * Reads a YAML file and returns a `YAMLReader` instance.
+     * Unlike {@link #read(String, boolean)} the file may have any extension. Files are cached like the ones read by
+     * path; files of other file systems, such as a zip file system, are cached by their URI.
+     *
+     * @param path                           The path of the YAML file.
+     * @param substituteEnvironmentVariables Whether to perform environment variable substitution on the file contents.
+     * @return A `YAMLReader` instance representing the contents of the YAML file.
+     * @throws YAMLFileException If the path is `null`, or if the file can't be read or is empty.
+     */
+    public static YAMLReader read(Path path, boolean substituteEnvironmentVariables) {
+        if (path == null) {
+            throw new YAMLFileException("File path can't be null or empty");
+        }
+
+        var fileData = YAMLFileLoader.load(path);
+        if (fileData == null) {
+            throw new YAMLFileException("Cannot read empty file at path: " + path);
+        }
+
+        return new YAMLReader(fileData, new ObjMapper(substituteEnvironmentVariables));
+    }
+
+    /**
+     * Reads layered YAML files, such as `app.yaml`, `app-prod.yaml` and `app-local.yaml`, as a single file.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param filePaths The file paths of the layers, the later ones overriding the earlier ones.
+     * @return A `YAMLReader` instance representing the merged contents of the files.
+     * @see #read(List, boolean)
+     */
+    public static YAMLReader read(List<String> filePaths) {
+        return read(filePaths, true);
+    }
+
+    /**
+     * Reads layered YAML files, such as `app.yaml`, `app-prod.yaml` and `app-local.yaml`, as a single file.
+     * The files are deep-merged once: maps are merged key by key, the keys of a later file overriding the same keys
+     * of the earlier ones, while any other value of a later file, such as a list, replaces the earlier value as a
+     * whole. The merged contents are cached and merged again only when one of the files changes, so a lookup costs
+     * the same as a lookup in a single file. Empty files are skipped.
+     *
+     * @param filePaths                      The file paths of the layers, the later ones overriding the earlier ones.
+     * @param substituteEnvironmentVariables Whether to perform environment variable substitution on the contents.
+     * @return A `YAMLReader` instance representing the merged contents of the files.
+     * @throws YAMLFileException If no file path is given, if a file path is `null`, empty, or blank, or if a file
+     *                           can't be read or every file is empty.
+     */
+    public static YAMLReader read(List<String> filePaths, boolean substituteEnvironmentVariables) {
+        if (filePaths == null || filePaths.isEmpty()) {
+            throw new YAMLFileException("At least one file path is required");
+        }
+        filePaths.forEach(YAML::validateFilePath);
+
+        var mergedData = YAMLFileLoader.loadLayers(filePaths);
+        if (mergedData == null) {
+            throw new YAMLFileException("Cannot read empty files at paths: " + filePaths);
+        }
+
+        return new YAMLReader(mergedData, new ObjMapper(substituteEnvironmentVariables));
+    }
+
+    /**
+     * Parses YAML content read from a stream, without caching it.
+     *
+     * @param content The stream of the content, which is read to its end but not closed.
+     * @return A `YAMLReader` instance representing the content.
+     * @see #parse(InputStream, String)
+     */
+    public static YAMLReader parse(InputStream content) {
+        return parse(content, null);
+    }
+
+    /**
+     * Parses YAML content read from a stream, such as a message payload, without writing it to a file first.
+     * Like files, the encoding is detected from the byte order mark and defaults to UTF-8.
+     * Environment variable substitution is enabled.
+     *
+     * @param content  The stream of the content, which is read to its end but not closed.
+     * @param cacheKey The key the parsed content is cached by, so a later parse with the same key returns the cached
+     *                 content without reading its stream, or `null` to not cache it.
+     * @return A `YAMLReader` instance representing the content.
+     * @throws YAMLFileException If the content is `null`, empty, or can't be read, or if the cache key is blank.
+     */
+    public static YAMLReader parse(InputStream content, String cacheKey) {
+        validateContent(content, cacheKey);
+        return parse(new UnicodeReader(content), cacheKey);
+    }
+
+    /**
+     * Parses YAML content read from a reader, without caching it.
+     *
+     * @param content The reader of the content, which is read to its end but not closed.
+     * @return A `YAMLReader` instance representing the content.
+     * @see #parse(Reader, String)
+     */
+    public static YAMLReader parse(Reader content) {
+        return parse(content, null);
+    }
+
+    /**
+     * Parses YAML content read from a reader.
+     * Environment variable substitution is enabled.
+     *
+     * @param content  The reader of the content, which is read to its end but not closed.
+     * @param cacheKey The key the parsed content is cached by, so a later parse with the same key returns the cached
+     *                 content without reading the reader, or `null` to not cache it.
+     * @return A `YAMLReader` instance representing the content.
+     * @throws YAMLFileException If the content is `null`, empty, or can't be read, or if the cache key is blank.
+     */
+    public static YAMLReader parse(Reader content, String cacheKey) {
+        validateContent(content, cacheKey);
+
+        var data = YAMLFileLoader.loadContent(content, cacheKey);
+        if (data == null) {
+            throw new YAMLFileException("Cannot read empty content");
+        }
+
+        return new YAMLReader(data, new ObjMapper(true));
+    }
+
+    /**
+     * Parses YAML content held in a string, without caching it.
+     *
+     * @param content The YAML content, such as a generated document.
+     * @return A `YAMLReader` instance representing the content.
+     * @see #parse(CharSequence, String)
+     */
+    public static YAMLReader parse(CharSequence content) {
+        return parse(content, null);
+    }
+
+    /**
+     * Parses YAML content held in a string.
+     * Environment variable substitution is enabled.
+     *
+     * @param content  The YAML content, such as a generated document.
+     * @param cacheKey The key the parsed content is cached by, so a later parse with the same key returns the cached
+     *                 content, or `null` to not cache it.
+     * @return A `YAMLReader` instance representing the content.
+     * @throws YAMLFileException If the content is `null` or empty, or if the cache key is blank.
+     */
+    public static YAMLReader parse(CharSequence content, String cacheKey) {
+        validateContent(content, cacheKey);
+        return parse(new StringReader(content.toString()), cacheKey);
+    }
+
+    /**
+     * Parses YAML content held in a byte array, without caching it.
+     *
+     * @param content The encoded YAML content.
+     * @return A `YAMLReader` instance representing the content.
+     * @see #parse(byte[], String)
+     */
+    public static YAMLReader parse(byte[] content) {
+        return parse(content, null);
+    }
+
+    /**
+     * Parses YAML content held in a byte array. The encoding is detected from the byte order mark and defaults to
+     * UTF-8, and the bytes are decoded in small chunks instead of into one String.
+     * Environment variable substitution is enabled.
+     *
+     * @param content  The encoded YAML content.
+     * @param cacheKey The key the parsed content is cached by, so a later parse with the same key returns the cached
+     *                 content, or `null` to not cache it.
+     * @return A `YAMLReader` instance representing the content.
+     * @throws YAMLFileException If the content is `null`, empty, or malformed, or if the cache key is blank.
+     */
+    public static YAMLReader parse(byte[] content, String cacheKey) {
+        validateContent(content, cacheKey);
+        return parse(ByteBuffer.wrap(content), cacheKey);
+    }
+
+    /**
+     * Parses YAML content held in a buffer, without caching it.
+     *
+     * @param content The encoded YAML content, from its position to its limit.
+     * @return A `YAMLReader` instance representing the content.
+     * @see #parse(ByteBuffer, String)
+     */
+    public static YAMLReader parse(ByteBuffer content) {
+        return parse(content, null);
+    }
+
+    /**
+     * Parses YAML content held in a buffer, such as a direct or memory-mapped buffer. The encoding is detected from
+     * the byte order mark and defaults to UTF-8, and the bytes are decoded in small chunks instead of into one String.
+     * The position of the buffer is not changed.
+     * Environment variable substitution is enabled.
+     *
+     * @param content  The encoded YAML content, from its position to its limit.
+     * @param cacheKey The key the parsed content is cached by, so a later parse with the same key returns the cached
+     *                 content, or `null` to not cache it.
+     * @return A `YAMLReader` instance representing the content.
+     * @throws YAMLFileException If the content is `null`, empty, or malformed, or if the cache key is blank.
+     */
+    public static YAMLReader parse(ByteBuffer content, String cacheKey) {
+        validateContent(content, cacheKey);
+        return parse(new ByteBufferReader(content.duplicate()), cacheKey);
+    }
+
+    /**
+     * Reads a YAML resource from the classpath and returns a `YAMLReader` instance.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param name The name of the resource, such as `config/app.yaml`.
+     * @return A `YAMLReader` instance representing the contents of the YAML resource.
+     * @see #readResource(String, boolean)
+     */
+    public static YAMLReader readResource(String name) {
+        return readResource(name, true);
+    }
+
+    /**
+     * Reads a YAML resource from the classpath and returns a `YAMLReader` instance.
+     * The resource is looked up with the context class loader of the current thread, then with the class loader of
+     * this library, so it can be read from a directory or from inside a jar without extracting it. Resources are
+     * cached by their URL, in the same cache as the files read by {@link #read(String)}.
+     *
+     * @param name                           The name of the resource, such as `config/app.yaml`.
+     * @param substituteEnvironmentVariables Whether to perform environment variable substitution on the contents.
+     * @return A `YAMLReader` instance representing the contents of the YAML resource.
+     * @throws YAMLFileException If the name is `null`, empty, or blank, or if the resource can't be found or read.
+     */
+    public static YAMLReader readResource(String name, boolean substituteEnvironmentVariables) {
+        if (name == null || name.isBlank()) {
+            throw new YAMLFileException("Resource name can't be null or empty");
+        }
+
+        var resourceData = YAMLFileLoader.loadResource(name);
+        if (resourceData == null) {
+            throw new YAMLFileException("Cannot read empty resource: " + name);
+        }
+
+        return new YAMLReader(resourceData, new ObjMapper(substituteEnvironmentVariables));
+    }
+
+    /**
+     * Reads a YAML file without blocking the caller.
+     * The file is parsed on the common Fork/Join pool, or on a virtual thread per file when running on JDK 21 or later.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param filePath The file path of the YAML file.
+     * @return A future of the `YAMLReader` instance representing the contents of the YAML file.
+     * @see #readAsync(String, Executor)
+     */
+    public static CompletableFuture<YAMLReader> readAsync(String filePath) {
+        return readAsync(filePath, DefaultExecutor.get());
+    }
+
+    /**
+     * Reads a YAML file without blocking the caller.
+     * The file is loaded through the same cache as {@link #read(String)}: a cached file completes the future
+     * immediately, and concurrent reads of a file that is still being parsed, blocking or not, share that parse.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param filePath The file path of the YAML file.
+     * @param executor The executor that parses the file if it is not cached yet.
+     * @return A future of the `YAMLReader` instance, which completes exceptionally with a `YAMLFileException` if the
+     * file can't be read or is empty.
+     * @throws YAMLFileException If the file path is `null`, empty, or blank, or if the executor is `null`.
+     */
+    public static CompletableFuture<YAMLReader> readAsync(String filePath, Executor executor) {
+        validateFilePath(filePath);
+        if (executor == null) {
+            throw new YAMLFileException("Executor can't be null");
+        }
+
+        return YAMLFileLoader.loadAsync(filePath, executor).thenApply(fileData -> {
+            if (fileData == null) {
+                throw new YAMLFileException("Cannot read empty file at path: " + filePath);
+            }
+            return new YAMLReader(fileData, new ObjMapper(true));
+        });
+    }
+
+    /**
+     * Reads the documents of a multi-document YAML file, separated by `---`.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param filePath The file path of the YAML file.
+     * @return The lazy documents of the file.
+     * @see #readAll(String, boolean)
+     */
+    public static YAMLDocuments readAll(String filePath) {
+        return readAll(filePath, true);
+    }
+
+    /**
+     * Reads the documents of a multi-document YAML file, separated by `---`.
+     * The documents are parsed one at a time as they are consumed and are not cached, so the memory used depends on the
+     * largest document and not on the whole file. The returned instance should be closed if it is not fully consumed.
+     *
+     * @param filePath                       The file path of the YAML file.
+     * @param substituteEnvironmentVariables Whether to perform environment variable substitution on the documents.
+     * @return The lazy documents of the file, a `YAMLReader` per document.
+     * @throws YAMLFileException If the file path is `null`, empty, or blank, or if the file can't be read.
+     */
+    public static YAMLDocuments readAll(String filePath, boolean substituteEnvironmentVariables) {
+        validateFilePath(filePath);
+
+        return YAMLFileLoader.loadAll(filePath, new ObjMapper(substituteEnvironmentVariables));
+    }
+
+    /**
+     * Reads, in parallel, the YAML files of a directory whose relative paths match a glob.
+     * The files are parsed on the common Fork/Join pool, at most as many at a time as there are processors.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param directory The directory to search, including its subdirectories.
+     * @param glob      The glob the relative paths of the files must match, such as `*.yaml`.
+     * @return The read files by path, sorted by path.
+     * @see #readAll(Path, String, Executor, int)
+     */
+    public static Map<Path, LoadedFile> readAll(Path directory, String glob) {
+        return readAll(directory, glob, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reads, in parallel, the YAML files of a directory whose relative paths match a glob.
+     * Every file is loaded into the loaded-files cache, so later reads of the same paths are served from the cache.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param directory       The directory to search, including its subdirectories.
+     * @param glob            The glob the relative paths of the files must match, such as `*.yaml`; use `**` to
+     *                        match across subdirectories.
+     * @param executor        The executor that parses the files.
+     * @param maxConcurrentIo The maximum number of files read and parsed at the same time.
+     * @return The read files by path, sorted by path, each with its `YAMLReader` and how long it took to load.
+     * @throws YAMLFileException If an argument is invalid, if the directory can't be searched, or if a file can't be
+     *                           read; the failures of the other files are attached as suppressed exceptions.
+     */
+    public static Map<Path, LoadedFile> readAll(Path directory, String glob, Executor executor, int maxConcurrentIo) {
+        if (directory == null || glob == null || glob.isBlank() || executor == null) {
+            throw new YAMLFileException("Directory, glob and executor can't be null or empty");
+        }
+        if (maxConcurrentIo <= 0) {
+            throw new YAMLFileException("Max concurrent I/O must be positive but was [" + maxConcurrentIo + "]");
+        }
+
+        return new BulkLoader(executor, maxConcurrentIo, new ObjMapper(true)).load(directory, glob);
+    }
+
+    /**
+     * Extracts the values of a few keys from a YAML file without loading the whole file.
+     * Environment variable substitution is enabled by default.
+     *
+     * @param filePath The file path of the YAML file.
+     * @param keys     The keys to extract, such as `a.b[2].c`.
+     * @return A `YAMLObj` per key, in the order of the keys.
+     * @see #extract(String, boolean, String...)
+     */
+    public static Map<String, YAMLObj> extract(String filePath, String... keys) {
+        return extract(filePath, true, keys);
+    }
+
+    /**
+     * Extracts the values of a few keys from a YAML file without loading the whole file.
+     * The file is streamed: subtrees that do not lead to one of the keys are skipped without being constructed, and
+     * the reading stops once every key has been found. This is useful for reading a few values from a large file;
+     * the file is not cached, so use {@link #read(String)} to read many values from the same file.
+     *
+     * @param filePath                       The file path of the YAML file.
+     * @param substituteEnvironmentVariables Whether to perform environment variable substitution on the keys.
+     * @param keys                           The keys to extract, such as `a.b[2].c`.
+     * @return A `YAMLObj` per key, in the order of the keys.
+     * @throws YAMLFileException   If the file path is `null`, empty, or blank, or if the file can't be read.
+     * @throws InvalidKeyException If no key is given, if a key is `null` or empty, or if a key does not exist.
+     */
+    public static Map<String, YAMLObj> extract(String filePath, boolean substituteEnvironmentVariables,
+                                               String... keys) {
+        validateFilePath(filePath);
+        validateKeys(keys);
+
+        var keyList = Arrays.stream(keys).distinct().toList();
+        var values = YAMLFileLoader.extract(filePath, keyList, new ObjMapper(substituteEnvironmentVariables));
+
+        var objects = new LinkedHashMap<String, YAMLObj>();
+        for (String key : keyList) {
+            if (!values.containsKey(key)) {
+                throw new InvalidKeyException("This key [" + key + "] does not exist in [" + filePath + "]");
+            }
+            objects.put(key, new YAMLObj(values.get(key)));
+        }
+        return objects;
+    }
+
+    /**
+     * Warms up the files, keys and bindings of a manifest, so the first real reads only hit warm caches.
+     * The files are loaded on the common Fork/Join pool, or on a virtual thread per file when running on JDK 21 or
+     * later.
+     *
+     * @param manifest The files, keys and bindings to warm up.
+     * @return How long each item took, and why an item failed.
+     * @see #preload(PreloadManifest, Executor)
+     */
+    public static PreloadReport preload(PreloadManifest manifest) {
+        return preload(manifest, DefaultExecutor.get());
+    }
+
+    /**
+     * Warms up the files, keys and bindings of a manifest, so the first real reads only hit warm caches.
+     * The library configuration and its date patterns are read first, then the files are loaded in parallel into the
+     * loaded-files cache, and the keys and bindings of each file are resolved as soon as it is loaded. A failed item
+     * is reported instead of thrown, so the other items are still warmed up.
+     *
+     * @param manifest The files, keys and bindings to warm up.
+     * @param executor The executor that loads the files.
+     * @return How long each item took, and why an item failed.
+     * @throws YAMLFileException If the manifest or the executor is `null`.
+     */
+    public static PreloadReport preload(PreloadManifest manifest, Executor executor) {
+        if (manifest == null || executor == null) {
+            throw new YAMLFileException("Manifest and executor can't be null");
+        }
+
+        return new Preloader(executor).preload(manifest);
+    }
+
+    /**
+     * Returns a snapshot of the loaded-files cache counters, which shows how many reads were served from the cache,
+     * how many parsed a file and how many waited for another thread to finish parsing the same file, together with
+     * the estimated retained bytes and the eviction counters of the cache.
+     *
+     * @return A `CacheStats` instance with the current counters.
+     */
+    public static CacheStats cacheStats() {
+        return YAMLFileLoader.stats();
+    }
+
+    /**
+     * Returns, for every cached file, the shape and estimated footprint of its tree: node count, maximum depth, number
+     * of scalars by type, estimated retained bytes, parse time and source size. The statistics are recorded while a
+     * file is loaded, in the same walk of the tree that estimates its size for the cache, so they cost nothing more
+     * to collect.
+     *
+     * @return The statistics of every cached tree, by cache key, sorted.
+     * @see YAMLReader#stats()
+     */
+    public static Map<String, TreeStats> treeStats() {
+        return YAMLFileLoader.treeStats();
+    }
+
+    /**
+     * Returns the files in the loaded-files cache. Files are cached by their real path, so a file read through
+     * different paths, such as a relative and an absolute path or a symbolic link, is parsed and kept once; the paths
+     * each file was read through are listed as its aliases. Content parsed with a cache key is listed as
+     * `content:<key>`.
+     *
+     * @return The aliases of each cached file by its real path, sorted.
+     */
+    public static Map<String, Set<String>> cachedFiles() {
+        return YAMLFileLoader.cachedFiles();
+    }
+
+    /**
+     * Sets the policy that bounds the loaded-files cache by number of files, estimated retained bytes and time to
+     * live. Files that exceed the limits are evicted and parsed again on their next read.
+     *
+     * @param policy The cache policy.
+     * @throws YAMLFileException If the policy is `null`.
+     */
+    public static void setCachePolicy(CachePolicy policy) {
+        if (policy == null) {
+            throw new YAMLFileException("Cache policy can't be null");
+        }
+        YAMLFileLoader.setCachePolicy(policy);
+    }
+
+    /**
+     * Sets the limits SnakeYAML applies while parsing, such as the maximum size of a document. The options apply to
+     * the files parsed from now on; files already cached are not parsed again, see {@link #clearCache()}.
+     *
+     * @param options The parsing options.
+     * @throws YAMLFileException If the options are `null`.
+     */
+    public static void setOptions(YAMLOptions options) {
+        if (options == null) {
+            throw new YAMLFileException("Options can't be null");
+        }
+        YamlFactory.setOptions(options);
+    }
+
+    /**
+     * Keeps a binary snapshot of every parsed file in the given directory, so the next JVM that reads an unchanged file
+     * decodes its snapshot instead of parsing the text again. A snapshot is only used while the SHA-256 hash of the
+     * file content matches the hash it was built from; files too large to fit in memory at once should not be read
+     * with snapshots enabled, since the content is read in full to be hashed.
+     *
+     * @param directory The directory of the `.nsrc` snapshot files, created if it does not exist.
+     * @throws YAMLFileException If the directory is `null` or can't be created.
+     */
+    public static void enableSnapshots(Path directory) {
+        if (directory == null) {
+            throw new YAMLFileException("Snapshot directory can't be null");
+        }
+        YAMLFileLoader.setSnapshotDirectory(directory);
+    }
+
+    /**
+     * Stops using and writing snapshots; the files are parsed from their text again. Existing snapshot files are kept.
+     */
+    public static void disableSnapshots() {
+        YAMLFileLoader.setSnapshotDirectory(null);
+    }
+
+    /**
+     * Enables hot reload with a debounce period of 100 milliseconds.
+     *
+     * @see #enableHotReload(Duration)
+     */
+    public static void enableHotReload() {
+        enableHotReload(Duration.ofMillis(100));
+    }
+
+    /**
+     * Enables hot reload: the loaded files are watched, and each file that changes on disk is parsed again once it
+     * stayed unchanged for the debounce period. The new content is swapped in atomically, so later reads see it while
+     * `YAMLReader` instances created before the change keep reading the content they were created with.
+     * A change that can't be parsed is ignored and the file keeps its old content.
+     *
+     * @param debounce How long a changed file must stay unchanged before it is parsed again.
+     * @throws YAMLFileException If the debounce period is `null` or negative.
+     */
+    public static void enableHotReload(Duration debounce) {
+        if (debounce == null || debounce.isNegative()) {
+            throw new YAMLFileException("Debounce period can't be null or negative");
+        }
+        YAMLFileLoader.enableHotReload(debounce);
+    }
+
+    /**
+     * Disables hot reload, so the loaded files are no longer watched.
+     */
+    public static void disableHotReload() {
+        YAMLFileLoader.disableHotReload();
+    }
+
+    /**
+     * Removes all the loaded files from the cache, so the next read of each file parses it again.
+     */
+    public static void clearCache() {
+        YAMLFileLoader.clear();
+    }
+
+    /**
+     * Validates that there is at least one key and that no key is null or empty.
+     */
+    private static void validateKeys(String[] keys) {
+        if (keys == null || keys.length == 0) {
+            throw new InvalidKeyException("At least one key is required");
+        }
+        for (String key : keys) {
+            if (key == null || key.isEmpty()) {
+                throw new InvalidKeyException("Key can't be null or empty");
+            }
+        }
+    }
+
+    /**
+     * Validates that the content is not null and that the cache key, if any, is not blank.
+     */
+    private static void validateContent(Object content, String cacheKey) {
+        if (content == null) {
+            throw new YAMLFileException("Content can't be null");
+        }
+        if (cacheKey != null && cacheKey.isBlank()) {
+            throw new YAMLFileException("Cache key can't be empty");
+        }
+    }
+
     /**
      * Validates that the file path is not null or blank.
      */
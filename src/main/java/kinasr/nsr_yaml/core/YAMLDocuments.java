@@ -0,0 +1,104 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The documents of a multi-document YAML file, separated by `---`.
+ * <p>
+ * The documents are parsed lazily, one at a time as they are consumed, so only the current document is held in
+ * memory. They can be consumed only once, either by iterating over this instance or through {@link #stream()}. The
+ * files a document includes are loaded when the document is parsed.
+ * The underlying file is closed once the last document is consumed, or when {@link #close()} is called.
+ */
+public class YAMLDocuments implements Iterable<YAMLReader>, AutoCloseable {
+    private final String filePath;
+    private final Reader reader;
+    private final Iterator<Object> documents;
+    private final ObjMapper mapper;
+    private boolean consumed;
+
+    /**
+     * Constructs the documents of a YAML file.
+     *
+     * @param filePath  The file path of the YAML file.
+     * @param reader    The reader of the file content, closed by this instance.
+     * @param documents The lazy documents parsed from the reader.
+     * @param mapper    The Object Mapper used by the readers of the documents.
+     */
+    protected YAMLDocuments(String filePath, Reader reader, Iterable<Object> documents, ObjMapper mapper) {
+        this.filePath = filePath;
+        this.reader = reader;
+        this.documents = documents.iterator();
+        this.mapper = mapper;
+    }
+
+    /**
+     * Returns an iterator that parses the next document each time it is advanced.
+     *
+     * @return An iterator of a `YAMLReader` per document.
+     * @throws YAMLFileException If the documents have already been consumed.
+     */
+    @Override
+    public Iterator<YAMLReader> iterator() {
+        if (consumed) {
+            throw new YAMLFileException("The documents of [" + filePath + "] can only be consumed once");
+        }
+        consumed = true;
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                var hasNext = documents.hasNext();
+                if (!hasNext) {
+                    close();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public YAMLReader next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("There are no more documents in [" + filePath + "]");
+                }
+                return new YAMLReader(IncludeResolver.resolve(documents.next(), filePath), mapper);
+            }
+        };
+    }
+
+    /**
+     * Returns a sequential stream that parses the next document each time one is consumed.
+     * Closing the stream closes the underlying file.
+     *
+     * @return A stream of a `YAMLReader` per document.
+     * @throws YAMLFileException If the documents have already been consumed.
+     */
+    public Stream<YAMLReader> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(this::close);
+    }
+
+    /**
+     * Closes the underlying file. The documents that have not been consumed yet are not parsed.
+     *
+     * @throws YAMLFileException If the file can't be closed.
+     */
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new YAMLFileException("Error closing YAML file: " + filePath, e);
+        }
+    }
+}
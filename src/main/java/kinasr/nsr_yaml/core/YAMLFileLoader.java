@@ -1,23 +1,72 @@
 package kinasr.nsr_yaml.core;
 
+import kinasr.nsr_yaml.exception.InvalidKeyException;
+import kinasr.nsr_yaml.exception.ParsingException;
 import kinasr.nsr_yaml.exception.YAMLFileException;
-import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Class YAMLFileLoader
  * <p>
- * This class provides a way to load data from a YAML file. The loaded data will be stored in a hash map so that
- * future requests for the same file can be served from the hash map without having to load the file again.
+ * This class provides a way to load data from a YAML file. The loaded data will be stored in a thread-safe cache so
+ * that future requests for the same file can be served from the cache without having to load the file again.
+ * The cache is keyed by the real path of the file, so different paths to the same file share its cached data.
+ * Concurrent requests for a file that is still being loaded wait for that load instead of parsing the file again.
+ * <p>
+ * Files are read through a FileChannel: small files are read into a heap buffer, while files above the mapped loading
+ * threshold are memory-mapped and decoded in small chunks while SnakeYAML consumes them.
+ * When hot reload is enabled, the loaded files that change on disk are parsed again and swapped in the cache.
+ * When snapshots are enabled, a file whose content did not change since it was last parsed is decoded from its binary
+ * snapshot instead of being parsed again. Snapshots are not used while lazy loading is enabled, since writing one
+ * would parse every value of the file.
  */
 public class YAMLFileLoader {
-    private static final Map<String, Object> LOADED_FILES = new HashMap<>();
-    private static final String YAML_FILE_PATTERN = ".*\\.(yaml|yml)$";
+    private static final FileCache LOADED_FILES =
+            new FileCache(YamlFactory.strings(), YAMLFileLoader::sourceSize, YAMLFileLoader::removed);
+    private static final ConcurrentMap<String, ResolvedPath> CACHE_KEYS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Object, String> FILE_KEYS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, List<String>> LAYERS_OF_MERGE = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Set<String>> MERGES_OF_LAYER = new ConcurrentHashMap<>();
+    private static final Object LAYER_TRACKING = new Object();
+    private static final int MAX_CACHE_KEYS = 10_000;
+    private static final String YAML_FILE_PATTERN = ".*\\.(yaml|yml)(\\.gz)?$";
+    private static final String COMPRESSED_EXTENSION = ".gz";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final String CONTENT_KEY_PREFIX = "content:";
+    private static final String LAYERS_KEY_PREFIX = "layers:";
+    private static final long DEFAULT_MAPPED_LOADING_THRESHOLD = 16L * 1024 * 1024;
+    private static volatile long mappedLoadingThreshold = DEFAULT_MAPPED_LOADING_THRESHOLD;
+    private static volatile FileWatcher watcher;
+    private static volatile SnapshotStore snapshots;
     
     private final String filePath;
     private final Object data;
@@ -39,15 +88,536 @@ public class YAMLFileLoader {
      * @return the loaded data in the form of an Object
      */
     protected static Object load(String filePath) {
-        if (LOADED_FILES.containsKey(filePath)) {
-            return LOADED_FILES.get(filePath);
+        return LOADED_FILES.get(cacheKey(filePath), key -> loadFile(filePath, key));
+    }
+
+    /**
+     * Loads layered YAML files and deep-merges their data, see {@link LayerMerger}. Every layer is loaded through the
+     * cache, and the merged data is cached as well, under a key made of the keys of the layers, so it counts toward
+     * the limits of the cache like any file. It is removed when one of its layers is reloaded or leaves the cache,
+     * and merged again by the next load, so later loads cost a cached load per layer.
+     *
+     * @param filePaths the file paths of the layers, the later ones overriding the earlier ones
+     * @return the merged data, or null if every layer is empty
+     */
+    protected static Object loadLayers(List<String> filePaths) {
+        var keys = new ArrayList<String>(filePaths.size());
+        for (String filePath : filePaths) {
+            keys.add(cacheKey(filePath));
+            // Keeps the layers as recently used as their merged data
+            load(filePath);
+        }
+
+        return LOADED_FILES.get(LAYERS_KEY_PREFIX + keys, key -> {
+            trackLayers(key, List.copyOf(keys));
+            var layers = new ArrayList<>(filePaths.size());
+            for (String filePath : filePaths) {
+                layers.add(load(filePath));
+            }
+            return LayerMerger.merge(layers);
+        });
+    }
+
+    /**
+     * Records the layers of merged data before they are loaded, so the merged data is removed if one of them is
+     * reloaded or leaves the cache while it is merged.
+     */
+    private static void trackLayers(String mergedKey, List<String> layerKeys) {
+        synchronized (LAYER_TRACKING) {
+            LAYERS_OF_MERGE.put(mergedKey, layerKeys);
+            for (String layerKey : layerKeys) {
+                MERGES_OF_LAYER.computeIfAbsent(layerKey, key -> ConcurrentHashMap.newKeySet()).add(mergedKey);
+            }
+        }
+    }
+
+    /**
+     * Forgets the layers of merged data that left the cache, unless it is being merged again.
+     */
+    private static void untrackLayers(String mergedKey) {
+        synchronized (LAYER_TRACKING) {
+            if (LOADED_FILES.contains(mergedKey)) {
+                return;
+            }
+
+            var layerKeys = LAYERS_OF_MERGE.remove(mergedKey);
+            if (layerKeys == null) {
+                return;
+            }
+            for (String layerKey : layerKeys) {
+                MERGES_OF_LAYER.computeIfPresent(layerKey, (key, merges) -> {
+                    merges.remove(mergedKey);
+                    return merges.isEmpty() ? null : merges;
+                });
+            }
+        }
+    }
+
+    /**
+     * Removes the merged data of every layered load the given file is a layer of.
+     */
+    private static void invalidateMerges(String layerKey) {
+        var merges = MERGES_OF_LAYER.get(layerKey);
+        if (merges != null) {
+            merges.forEach(LOADED_FILES::invalidate);
+        }
+    }
+
+    /**
+     * Loads the data from a YAML file whatever its extension. Files of the default file system share the cache
+     * entries of {@link #load(String)}, while files of other file systems, such as zip file systems, are cached by
+     * their URI.
+     *
+     * @param path the path of the YAML file
+     * @return the loaded data in the form of an Object
+     */
+    protected static Object load(Path path) {
+        if (path.getFileSystem() == FileSystems.getDefault()) {
+            return LOADED_FILES.get(cacheKey(path.toString()), YAMLFileLoader::loadFile);
+        }
+
+        return LOADED_FILES.get(path.toUri().toString(), key -> {
+            try (Reader reader = openReader(path)) {
+                return IncludeResolver.rejectIncludes(YamlFactory.loadTree(reader), key);
+            } catch (NoSuchFileException e) {
+                throw new YAMLFileException("Can't find this file [" + path.toUri() + "]", e);
+            } catch (IOException e) {
+                throw new YAMLFileException("Error reading YAML file: " + path.toUri(), e);
+            }
+        });
+    }
+
+    /**
+     * Loads YAML content that is not read from a file. Content loaded with a cache key is cached under that key, so
+     * a later load with the same key returns the cached data without reading its own content, while content without
+     * a cache key is parsed every time. The content can't include other files.
+     *
+     * @param reader   the reader of the content, which is not closed
+     * @param cacheKey the key the content is cached by, or null to not cache it
+     * @return the loaded data in the form of an Object
+     */
+    protected static Object loadContent(Reader reader, String cacheKey) {
+        if (cacheKey == null) {
+            return parse(reader);
+        }
+        return LOADED_FILES.get(CONTENT_KEY_PREFIX + cacheKey, key -> parse(reader));
+    }
+
+    /**
+     * Loads the data from a YAML file on the given executor. Concurrent asynchronous and blocking loads of the same
+     * file share a single parse.
+     *
+     * @param filePath the file path of the YAML file
+     * @param executor the executor that parses the file if it is not cached yet
+     * @return a future of the loaded data
+     */
+    protected static CompletableFuture<Object> loadAsync(String filePath, Executor executor) {
+        return LOADED_FILES.getAsync(cacheKey(filePath), key -> loadFile(filePath, key), executor);
+    }
+
+    /**
+     * Loads the data from a YAML resource found on the classpath. The data is cached by the URL of the resource, so
+     * the same resource is parsed once no matter which name or class loader it was found through.
+     *
+     * @param name the name of the resource, such as `config/app.yaml`
+     * @return the loaded data in the form of an Object
+     */
+    protected static Object loadResource(String name) {
+        var url = findResource(name);
+        if (url == null) {
+            throw new YAMLFileException("Can't find this resource [" + name + "]");
+        }
+
+        return LOADED_FILES.get(url.toString(), key -> {
+            validateFileExtension(name);
+            return IncludeResolver.resolveResource(parse(url), name, key);
+        });
+    }
+
+    /**
+     * Finds a resource using the context class loader of the current thread, then the class loader of this library.
+     *
+     * @param name the name of the resource, with or without a leading `/`
+     * @return the URL of the resource, or null if it can't be found
+     */
+    protected static URL findResource(String name) {
+        var resourceName = name.startsWith("/") ? name.substring(1) : name;
+
+        var contextClassLoader = Thread.currentThread().getContextClassLoader();
+        var url = contextClassLoader != null ? contextClassLoader.getResource(resourceName) : null;
+        if (url == null) {
+            url = YAMLFileLoader.class.getClassLoader().getResource(resourceName);
+        }
+        return url;
+    }
+
+    private static Object loadFile(String filePath, String key) {
+        validateFileExtension(filePath);
+        return loadFile(key);
+    }
+
+    private static Object loadFile(String key) {
+        var data = parse(key);
+        watch(key);
+        return data;
+    }
+
+    /**
+     * Returns the cache key of a file path: the real path of the file, so every spelling of the path and every
+     * symbolic link to the file share one cache entry. Hard links to a file share the key of the first path the file
+     * was read through when the file system exposes file identities. A path that can't be resolved is its own key,
+     * so the load reports why the file can't be read.
+     * <p>
+     * A path is resolved once and remembered, so later reads of the same path do not touch the file system. A path
+     * that goes through a symbolic link is resolved again on every read, since the link can be retargeted, as when a
+     * mounted Kubernetes ConfigMap is updated.
+     *
+     * @param filePath the file path of the YAML file
+     * @return the cache key of the file
+     */
+    protected static String cacheKey(String filePath) {
+        var remembered = CACHE_KEYS.get(filePath);
+        if (remembered != null && !remembered.linked()) {
+            return remembered.key();
+        }
+
+        var resolved = resolveCacheKey(filePath);
+        if (resolved == null) {
+            if (remembered != null) {
+                CACHE_KEYS.remove(filePath, remembered);
+            }
+            return filePath;
+        }
+
+        if (!resolved.equals(remembered)) {
+            if (CACHE_KEYS.size() >= MAX_CACHE_KEYS) {
+                CACHE_KEYS.clear();
+            }
+            CACHE_KEYS.put(filePath, resolved);
+        }
+        return resolved.key();
+    }
+
+    private static ResolvedPath resolveCacheKey(String filePath) {
+        Path path;
+        Path realPath;
+        Object fileKey;
+        try {
+            path = Path.of(filePath);
+            realPath = path.toRealPath();
+            fileKey = Files.readAttributes(realPath, BasicFileAttributes.class).fileKey();
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+
+        var linked = !realPath.equals(path.toAbsolutePath().normalize());
+        var key = realPath.toString();
+        if (fileKey == null) {
+            return new ResolvedPath(key, linked);
+        }
+
+        var known = FILE_KEYS.putIfAbsent(fileKey, key);
+        if (known == null || known.equals(key)) {
+            return new ResolvedPath(key, linked);
+        }
+        if (hasFileKey(known, fileKey)) {
+            return new ResolvedPath(known, linked);
+        }
+
+        // The file that had this identity is gone and the identity was reused by another file
+        FILE_KEYS.put(fileKey, key);
+        return new ResolvedPath(key, linked);
+    }
+
+    private static boolean hasFileKey(String path, Object fileKey) {
+        try {
+            return fileKey.equals(Files.readAttributes(Path.of(path), BasicFileAttributes.class).fileKey());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a YAML file without using the cache. The files it includes are loaded through the cache.
+     *
+     * @param filePath the file path of the YAML file
+     * @return the parsed data
+     */
+    protected static Object parse(String filePath) {
+        return parse(filePath, null);
+    }
+
+    /**
+     * Parses a YAML file without using the cache, reusing the unchanged sections of its previous tree when
+     * incremental reload is enabled.
+     */
+    private static Object parse(String filePath, Object previous) {
+        if (YamlFactory.isIncrementalReload()) {
+            return IncrementalReloader.parse(filePath, previous);
+        }
+
+        var store = snapshots;
+        if (store != null && !YamlFactory.isLazyLoading()) {
+            return IncludeResolver.resolve(YamlFactory.compact(store.load(filePath, YamlFactory::load)), filePath);
+        }
+        return IncludeResolver.resolve(new YAMLFileLoader(filePath).data, filePath);
+    }
+
+    private static Object parse(URL url) {
+        try (Reader reader = openReader(url)) {
+            return YamlFactory.loadTree(reader);
+        } catch (IOException e) {
+            throw new YAMLFileException("Error reading YAML resource: " + url, e);
         }
+    }
 
+    private static Object parse(Reader reader) {
+        try {
+            return IncludeResolver.rejectIncludes(YamlFactory.loadTree(reader), "YAML content");
+        } catch (IOException e) {
+            throw new YAMLFileException("Error reading YAML content", e);
+        }
+    }
+
+    /**
+     * Opens a multi-document YAML file, whose documents are parsed lazily as they are consumed, without using the cache.
+     *
+     * @param filePath the file path of the YAML file
+     * @param mapper   the Object Mapper used by the readers of the documents
+     * @return the documents of the file
+     */
+    protected static YAMLDocuments loadAll(String filePath, ObjMapper mapper) {
+        validateFileExtension(filePath);
+
+        var reader = openReader(filePath);
+        return new YAMLDocuments(filePath, reader, YamlFactory.newYaml().loadAll(reader), mapper);
+    }
+
+    /**
+     * Extracts the values of a few keys from a YAML file by streaming its parse events, without using the cache and
+     * without building the tree of the whole file. Keys that can't be resolved while streaming, and every key of a file
+     * that includes other files, are looked up in the fully parsed file instead.
+     *
+     * @param filePath the file path of the YAML file
+     * @param keys     the keys to extract
+     * @param mapper   the Object Mapper used to resolve the keys
+     * @return the values of the found keys, by key
+     */
+    protected static Map<String, Object> extract(String filePath, List<String> keys, ObjMapper mapper) {
         validateFileExtension(filePath);
 
-        Object newData = new YAMLFileLoader(filePath).data;
-        LOADED_FILES.put(filePath, newData);
-        return newData;
+        var extractor = new PathExtractor(keys, mapper);
+        Map<String, Object> values;
+        try (Reader reader = openReader(filePath)) {
+            values = extractor.extract(reader);
+        } catch (IOException e) {
+            throw new YAMLFileException("Error reading YAML file: " + filePath, e);
+        }
+
+        if (values.size() < keys.size() && extractor.needsFullLoad()) {
+            var data = parse(filePath);
+            for (String key : keys) {
+                if (values.containsKey(key)) {
+                    continue;
+                }
+                try {
+                    values.put(key, mapper.get(data, key));
+                } catch (InvalidKeyException | ParsingException ignore) {
+                    // The key does not exist in the file either
+                }
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Sets the file size from which the files are memory-mapped instead of read into a heap buffer.
+     *
+     * @param threshold the file size in bytes
+     */
+    protected static void setMappedLoadingThreshold(long threshold) {
+        mappedLoadingThreshold = threshold;
+    }
+
+    /**
+     * Sets the directory where the snapshots of the parsed files are kept, or null to parse every file from its text.
+     *
+     * @param directory the snapshot directory, or null
+     */
+    protected static void setSnapshotDirectory(Path directory) {
+        snapshots = directory != null ? new SnapshotStore(directory) : null;
+    }
+
+    /**
+     * Starts watching the loaded files, so each file that changes on disk is parsed again once it stayed unchanged
+     * for the debounce period, and its new content is swapped in the cache.
+     *
+     * @param debounce how long a changed file must stay unchanged before it is parsed again
+     */
+    protected static synchronized void enableHotReload(Duration debounce) {
+        disableHotReload();
+        watcher = new FileWatcher(debounce, YAMLFileLoader::reload);
+        LOADED_FILES.keys().forEach(watcher::watch);
+    }
+
+    /**
+     * Stops watching the loaded files.
+     */
+    protected static synchronized void disableHotReload() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the loaded-files cache counters.
+     *
+     * @return the cache statistics
+     */
+    protected static CacheStats stats() {
+        return LOADED_FILES.stats();
+    }
+
+    /**
+     * Returns the statistics of the cached trees, recorded when they were loaded.
+     *
+     * @return the statistics of every cached tree, by cache key, sorted
+     */
+    protected static Map<String, TreeStats> treeStats() {
+        return Collections.unmodifiableMap(LOADED_FILES.treeStats());
+    }
+
+    /**
+     * Returns the statistics of a tree, with the parse time and source size recorded when it was loaded if it is a
+     * cached tree. The nodes are counted again, so the values of a lazily loaded file read since it was loaded are
+     * counted too.
+     *
+     * @param tree the tree
+     * @return the statistics of the tree
+     */
+    protected static TreeStats treeStats(Object tree) {
+        var loaded = LOADED_FILES.treeStatsOf(tree);
+        return loaded != null
+                ? TreeSizeEstimator.stats(tree, loaded.parseTime(), loaded.sourceBytes())
+                : TreeSizeEstimator.stats(tree, Duration.ZERO, -1);
+    }
+
+    /**
+     * Returns the size of the file of a cache key, which is the compressed size of a compressed file, or -1 if the
+     * key is not a file.
+     */
+    private static long sourceSize(String key) {
+        try {
+            var path = Path.of(key);
+            return Files.isRegularFile(path) ? Files.size(path) : -1;
+        } catch (InvalidPathException | IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Sets the policy that bounds the loaded-files cache.
+     *
+     * @param policy the cache policy
+     */
+    protected static void setCachePolicy(CachePolicy policy) {
+        LOADED_FILES.setPolicy(policy);
+    }
+
+    /**
+     * Removes all the loaded files from the cache.
+     */
+    protected static void clear() {
+        LOADED_FILES.clear();
+        CACHE_KEYS.clear();
+        FILE_KEYS.clear();
+        IncludeResolver.clear();
+        IncrementalReloader.clear();
+    }
+
+    /**
+     * Returns the cached files with the paths they were read through.
+     *
+     * @return the paths read for each cache key, sorted
+     */
+    protected static Map<String, Set<String>> cachedFiles() {
+        var cachedFiles = new TreeMap<String, Set<String>>();
+        for (String key : LOADED_FILES.keys()) {
+            cachedFiles.put(key, new TreeSet<>());
+        }
+
+        CACHE_KEYS.forEach((filePath, resolved) -> {
+            var aliases = cachedFiles.get(resolved.key());
+            if (aliases != null) {
+                aliases.add(filePath);
+            }
+        });
+
+        cachedFiles.replaceAll((key, aliases) -> Collections.unmodifiableSet(aliases));
+        return Collections.unmodifiableMap(cachedFiles);
+    }
+
+    /**
+     * Parses a changed file again and swaps its new content in the cache, then does the same for the files that
+     * include it, so they splice its new content.
+     */
+    private static void reload(String filePath) {
+        if (LOADED_FILES.reload(filePath, (key, previous) -> parse(key, previous))) {
+            invalidateMerges(filePath);
+            IncludeResolver.includersOf(filePath).forEach(YAMLFileLoader::reload);
+        }
+    }
+
+    /**
+     * Watches a newly loaded file if hot reload is enabled.
+     */
+    private static synchronized void watch(String filePath) {
+        if (watcher != null) {
+            watcher.watch(filePath);
+        }
+    }
+
+    /**
+     * Cleans up after a key that left the cache: the merged data a file is a layer of is removed, and the file is not
+     * watched anymore. This runs while the cache is locked.
+     */
+    private static void removed(String key) {
+        if (key.startsWith(LAYERS_KEY_PREFIX)) {
+            untrackLayers(key);
+            return;
+        }
+
+        invalidateMerges(key);
+        unwatch(key);
+    }
+
+    /**
+     * Stops watching a file that is not cached anymore. The file is watched again if it was loaded again meanwhile,
+     * since that load may have watched it before it was unwatched. This runs while the cache is locked, so it reads
+     * the watcher without taking the lock of {@link #watch(String)}.
+     */
+    private static void unwatch(String key) {
+        var current = watcher;
+        if (current == null) {
+            return;
+        }
+
+        current.unwatch(key);
+        if (LOADED_FILES.contains(key)) {
+            current.watch(key);
+        }
+    }
+
+    /**
+     * Returns the number of directories watched for hot reload.
+     *
+     * @return the number of watched directories, or 0 if hot reload is disabled
+     */
+    protected static int watchedDirectories() {
+        var current = watcher;
+        return current != null ? current.watchedDirectories() : 0;
     }
 
     /**
@@ -56,9 +626,10 @@ public class YAMLFileLoader {
      * @param filePath the file path of the YAML file
      * @throws YAMLFileException if the file path has an unsupported extension
      */
-    private static void validateFileExtension(String filePath) {
+    protected static void validateFileExtension(String filePath) {
         if (!filePath.matches(YAML_FILE_PATTERN)) {
-            throw new YAMLFileException(".yaml and .yml are the only supported extensions");
+            throw new YAMLFileException(".yaml and .yml, optionally compressed as .yaml.gz and .yml.gz, are the only " +
+                    "supported extensions");
         }
     }
 
@@ -68,12 +639,148 @@ public class YAMLFileLoader {
      * @return the loaded data
      */
     private Object parseYamlFile() {
-        try (FileInputStream fileStream = new FileInputStream(filePath)) {
-            return new Yaml().load(fileStream);
-        } catch (FileNotFoundException e) {
+        try (Reader reader = openReader(filePath)) {
+            return YamlFactory.loadTree(reader);
+        } catch (IOException e) {
+            throw new YAMLFileException("Error reading YAML file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Opens a reader of a YAML file without using the cache.
+     *
+     * @param filePath the file path of the YAML file
+     * @return a reader of the file content, which must be closed by the caller
+     * @throws YAMLFileException if the file can't be found or read
+     */
+    protected static Reader openReader(String filePath) {
+        var channel = openChannel(filePath);
+
+        try {
+            if (isCompressed(filePath)) {
+                return openCompressedReader(Channels.newInputStream(channel));
+            }
+
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return new UnicodeReader(Channels.newInputStream(channel));
+            }
+            try (channel) {
+                return openReader(channel, size);
+            }
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new YAMLFileException("Error reading YAML file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Opens a reader of a file of a file system other than the default one.
+     */
+    private static Reader openReader(Path path) throws IOException {
+        var in = Files.newInputStream(path);
+        return isCompressed(path.toString()) ? openCompressedReader(in) : new UnicodeReader(in);
+    }
+
+    /**
+     * Opens a reader of a resource. Resources in a directory are read as files, while the other resources, such as
+     * jar entries, are read straight into a heap buffer.
+     */
+    private static Reader openReader(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return openReader(Path.of(url.toURI()).toString());
+            } catch (URISyntaxException | IllegalArgumentException ignore) {
+                // Not a plain file path, read it as a stream instead
+            }
+        }
+
+        var connection = url.openConnection();
+        if (isCompressed(url.getPath())) {
+            return openCompressedReader(connection.getInputStream());
+        }
+
+        var length = connection.getContentLengthLong();
+        try (InputStream in = connection.getInputStream()) {
+            if (length < 0 || length > Integer.MAX_VALUE - 8) {
+                return new ByteBufferReader(ByteBuffer.wrap(in.readAllBytes()));
+            }
+
+            var bytes = new byte[(int) length];
+            var read = in.readNBytes(bytes, 0, bytes.length);
+            return new ByteBufferReader(ByteBuffer.wrap(bytes, 0, read));
+        }
+    }
+
+    /**
+     * Whether a file or resource is gzip-compressed, according to its name.
+     *
+     * @param name the path or name of the file
+     * @return true if the name ends with `.gz`
+     */
+    protected static boolean isCompressed(String name) {
+        return name.endsWith(COMPRESSED_EXTENSION);
+    }
+
+    /**
+     * Opens a reader that decompresses a gzip stream straight into the parser, without a temporary file. The stream
+     * is inflated in 64 KB chunks, which keeps the number of reads low for large files, and the encoding of the
+     * decompressed content is detected like the encoding of a plain file.
+     *
+     * @param in the compressed stream, which is closed with the reader
+     * @return a reader of the decompressed content
+     * @throws IOException if the stream is not in the gzip format or can't be read
+     */
+    protected static Reader openCompressedReader(InputStream in) throws IOException {
+        try {
+            return new UnicodeReader(new GZIPInputStream(in, GZIP_BUFFER_SIZE));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a read-only channel of a YAML file.
+     */
+    private static FileChannel openChannel(String filePath) {
+        try {
+            return FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        } catch (NoSuchFileException | InvalidPathException e) {
             throw new YAMLFileException("Can't find this file [" + filePath + "]", e);
         } catch (IOException e) {
             throw new YAMLFileException("Error reading YAML file: " + filePath, e);
         }
     }
-}
\ No newline at end of file
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+            // The original failure is more useful than the failure to close
+        }
+    }
+
+    /**
+     * Opens a reader of the file content, which reads small files into a heap buffer and maps the large ones.
+     * The reader does not depend on the channel, which can be closed once this method returns. Files too large to be
+     * mapped at once are streamed from their channel instead.
+     */
+    private static Reader openReader(FileChannel channel, long size) throws IOException {
+        if (size >= mappedLoadingThreshold) {
+            return new ByteBufferReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+
+        var buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Read until the buffer is full or the end of the file
+        }
+        return new ByteBufferReader(buffer.flip());
+    }
+
+    /**
+     * The cache key a file path resolves to, and whether the path goes through a symbolic link.
+     */
+    private record ResolvedPath(String key, boolean linked) {
+    }
+}
@@ -20,7 +20,8 @@ public class YAMLObject {
     }
 
     /**
-     * Returns the data stored in the YAMLObject as an Object.
+     * Returns the data stored in the YAMLObject as an Object. A sequence kept off-heap is returned as a read-only
+     * List view of its buffer, which builds an item each time it is read.
      *
      * @return The data stored in the YAMLObject as an Object.
      */
@@ -58,6 +59,42 @@ public class YAMLObject {
         return Parser.toList(data, clazz);
     }
 
+    /**
+     * Returns the data stored in the YAMLObject as an array of ints, without boxing the items of a sequence kept as
+     * integers, such as a sequence kept off-heap.
+     *
+     * @return The data stored in the YAMLObject as an array of ints.
+     * @throws ParsingException if the data is not a list or one of its items can't be parsed to an int.
+     * @see YAMLOptions#setOffHeapSequences(boolean)
+     */
+    public int[] asIntArray() {
+        return Parser.toIntArray(data);
+    }
+
+    /**
+     * Returns the data stored in the YAMLObject as an array of longs, without boxing the items of a sequence kept as
+     * longs, such as a sequence kept off-heap.
+     *
+     * @return The data stored in the YAMLObject as an array of longs.
+     * @throws ParsingException if the data is not a list or one of its items can't be parsed to a long.
+     * @see YAMLOptions#setOffHeapSequences(boolean)
+     */
+    public long[] asLongArray() {
+        return Parser.toLongArray(data);
+    }
+
+    /**
+     * Returns the data stored in the YAMLObject as an array of doubles, without boxing the items of a sequence kept
+     * as doubles, such as a sequence kept off-heap.
+     *
+     * @return The data stored in the YAMLObject as an array of doubles.
+     * @throws ParsingException if the data is not a list or one of its items can't be parsed to a double.
+     * @see YAMLOptions#setOffHeapSequences(boolean)
+     */
+    public double[] asDoubleArray() {
+        return Parser.toDoubleArray(data);
+    }
+
     /**
      * Returns the data stored in the YAMLObject as a Map with String keys and Object values.
      *
@@ -0,0 +1,283 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+import org.yaml.snakeyaml.LoaderOptions;
+
+/**
+ * Describes the limits SnakeYAML applies while parsing a YAML file, whether the parsed strings are interned, and
+ * how the parsed trees are built and kept.
+ * <p>
+ * The default options use the limits of SnakeYAML, which for example reject documents of more than 3 MB. Large data
+ * files need a higher code point limit. Options are applied using {@link YAML#setOptions(YAMLOptions)}.
+ */
+public class YAMLOptions {
+    private static final LoaderOptions DEFAULTS = new LoaderOptions();
+
+    private int codePointLimit = DEFAULTS.getCodePointLimit();
+    private int maxAliasesForCollections = DEFAULTS.getMaxAliasesForCollections();
+    private int nestingDepthLimit = DEFAULTS.getNestingDepthLimit();
+    private boolean stringInterning;
+    private int maxInternedStringLength = 64;
+    private boolean compactTrees = true;
+    private boolean lazyLoading;
+    private boolean incrementalReload;
+    private boolean offHeapSequences;
+    private int minOffHeapSequenceSize = 65_536;
+
+    /**
+     * Creates options with the default limits of SnakeYAML.
+     */
+    public YAMLOptions() {
+    }
+
+    /**
+     * Creates a copy of the given options.
+     */
+    private YAMLOptions(YAMLOptions other) {
+        this.codePointLimit = other.codePointLimit;
+        this.maxAliasesForCollections = other.maxAliasesForCollections;
+        this.nestingDepthLimit = other.nestingDepthLimit;
+        this.stringInterning = other.stringInterning;
+        this.maxInternedStringLength = other.maxInternedStringLength;
+        this.compactTrees = other.compactTrees;
+        this.lazyLoading = other.lazyLoading;
+        this.incrementalReload = other.incrementalReload;
+        this.offHeapSequences = other.offHeapSequences;
+        this.minOffHeapSequenceSize = other.minOffHeapSequenceSize;
+    }
+
+    /**
+     * Sets the maximum number of code points a document may contain.
+     *
+     * @param codePointLimit the maximum number of code points, must be positive
+     * @return these options
+     */
+    public YAMLOptions setCodePointLimit(int codePointLimit) {
+        if (codePointLimit <= 0) {
+            throw new YAMLFileException("Code point limit must be positive but was [" + codePointLimit + "]");
+        }
+        this.codePointLimit = codePointLimit;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of aliases a document may use for collections, which protects against billion laughs
+     * documents.
+     *
+     * @param maxAliasesForCollections the maximum number of aliases, must be positive
+     * @return these options
+     */
+    public YAMLOptions setMaxAliasesForCollections(int maxAliasesForCollections) {
+        if (maxAliasesForCollections <= 0) {
+            throw new YAMLFileException("Max aliases for collections must be positive but was ["
+                    + maxAliasesForCollections + "]");
+        }
+        this.maxAliasesForCollections = maxAliasesForCollections;
+        return this;
+    }
+
+    /**
+     * Sets how deep collections may be nested.
+     *
+     * @param nestingDepthLimit the maximum nesting depth, must be positive
+     * @return these options
+     */
+    public YAMLOptions setNestingDepthLimit(int nestingDepthLimit) {
+        if (nestingDepthLimit <= 0) {
+            throw new YAMLFileException("Nesting depth limit must be positive but was [" + nestingDepthLimit + "]");
+        }
+        this.nestingDepthLimit = nestingDepthLimit;
+        return this;
+    }
+
+    /**
+     * Sets whether equal map keys and short string values are shared across every loaded file instead of being kept
+     * as one String instance per occurrence. This saves memory when many files repeat the same keys and values, at
+     * the cost of a lookup per string while parsing.
+     *
+     * @param stringInterning true to share equal strings
+     * @return these options
+     */
+    public YAMLOptions setStringInterning(boolean stringInterning) {
+        this.stringInterning = stringInterning;
+        return this;
+    }
+
+    /**
+     * Sets the maximum length of the strings shared when string interning is enabled; longer strings are rarely
+     * repeated and are kept as they are.
+     *
+     * @param maxInternedStringLength the maximum number of characters, must be positive
+     * @return these options
+     */
+    public YAMLOptions setMaxInternedStringLength(int maxInternedStringLength) {
+        if (maxInternedStringLength <= 0) {
+            throw new YAMLFileException("Max interned string length must be positive but was ["
+                    + maxInternedStringLength + "]");
+        }
+        this.maxInternedStringLength = maxInternedStringLength;
+        return this;
+    }
+
+    /**
+     * Sets whether the loaded trees are converted into immutable array-backed maps and lists, which retain less memory
+     * and are looked up without copying, instead of being kept as the mutable maps and lists built by SnakeYAML.
+     * Enabled by default.
+     *
+     * @param compactTrees true to keep the loaded trees in their compact form
+     * @return these options
+     */
+    public YAMLOptions setCompactTrees(boolean compactTrees) {
+        this.compactTrees = compactTrees;
+        return this;
+    }
+
+    /**
+     * Sets whether the top-level values of a loaded file are parsed only when they are first read. A file is still
+     * scanned once when it is loaded, which reports syntax errors, but the values that are never read are never
+     * built, which saves time and memory when only a few keys of a large file are read. Files that use anchors or
+     * aliases, and small files, are loaded fully. Disabled by default.
+     *
+     * @param lazyLoading true to parse the top-level values when they are first read
+     * @return these options
+     */
+    public YAMLOptions setLazyLoading(boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+        return this;
+    }
+
+    /**
+     * Sets whether a changed file is reloaded by parsing again only its top-level sections that changed. The new tree
+     * of the file shares every unchanged section with the previous one, which makes reloading a large file after a
+     * small edit much cheaper. Files are then parsed section by section, which bypasses the parse snapshots, and
+     * files that use anchors or aliases, or include other files, are still parsed fully. Has no effect when lazy
+     * loading is enabled. Disabled by default.
+     *
+     * @param incrementalReload true to parse again only the changed sections of a reloaded file
+     * @return these options
+     * @see YAML#enableHotReload()
+     */
+    public YAMLOptions setIncrementalReload(boolean incrementalReload) {
+        this.incrementalReload = incrementalReload;
+        return this;
+    }
+
+    /**
+     * Sets whether long sequences whose items are all integers, all longs, all doubles or all strings are kept
+     * off-heap, in direct buffers, instead of as one object per item. This shortens the garbage collection pauses of
+     * applications that keep files of large lookup tables, whose numbers can then be read without boxing using
+     * {@link YAMLObject#asIntArray()} and its siblings. The off-heap memory is limited by the
+     * `-XX:MaxDirectMemorySize` JVM option. Only applies to compact trees. Disabled by default.
+     *
+     * @param offHeapSequences true to keep long sequences off-heap
+     * @return these options
+     */
+    public YAMLOptions setOffHeapSequences(boolean offHeapSequences) {
+        this.offHeapSequences = offHeapSequences;
+        return this;
+    }
+
+    /**
+     * Sets the minimum number of items of the sequences kept off-heap when off-heap sequences are enabled; shorter
+     * sequences cost less on the heap than a direct buffer. Defaults to 65536.
+     *
+     * @param minOffHeapSequenceSize the minimum number of items, must be positive
+     * @return these options
+     */
+    public YAMLOptions setMinOffHeapSequenceSize(int minOffHeapSequenceSize) {
+        if (minOffHeapSequenceSize <= 0) {
+            throw new YAMLFileException("Min off-heap sequence size must be positive but was ["
+                    + minOffHeapSequenceSize + "]");
+        }
+        this.minOffHeapSequenceSize = minOffHeapSequenceSize;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of code points a document may contain.
+     */
+    public int getCodePointLimit() {
+        return codePointLimit;
+    }
+
+    /**
+     * Returns the maximum number of aliases a document may use for collections.
+     */
+    public int getMaxAliasesForCollections() {
+        return maxAliasesForCollections;
+    }
+
+    /**
+     * Returns how deep collections may be nested.
+     */
+    public int getNestingDepthLimit() {
+        return nestingDepthLimit;
+    }
+
+    /**
+     * Returns whether equal map keys and short string values are shared across every loaded file.
+     */
+    public boolean isStringInterning() {
+        return stringInterning;
+    }
+
+    /**
+     * Returns the maximum length of the strings shared when string interning is enabled.
+     */
+    public int getMaxInternedStringLength() {
+        return maxInternedStringLength;
+    }
+
+    /**
+     * Returns whether the loaded trees are kept in their compact form.
+     */
+    public boolean isCompactTrees() {
+        return compactTrees;
+    }
+
+    /**
+     * Returns whether the top-level values of a loaded file are parsed only when they are first read.
+     */
+    public boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Returns whether a changed file is reloaded by parsing again only its top-level sections that changed.
+     */
+    public boolean isIncrementalReload() {
+        return incrementalReload;
+    }
+
+    /**
+     * Returns whether long sequences are kept off-heap.
+     */
+    public boolean isOffHeapSequences() {
+        return offHeapSequences;
+    }
+
+    /**
+     * Returns the minimum number of items of the sequences kept off-heap.
+     */
+    public int getMinOffHeapSequenceSize() {
+        return minOffHeapSequenceSize;
+    }
+
+    /**
+     * Returns a copy of these options, so later changes to this instance do not affect the loaders that use the copy.
+     */
+    protected YAMLOptions copy() {
+        return new YAMLOptions(this);
+    }
+
+    /**
+     * Returns new SnakeYAML loading options with these limits.
+     */
+    protected LoaderOptions toLoaderOptions() {
+        var loaderOptions = new LoaderOptions();
+        loaderOptions.setCodePointLimit(codePointLimit);
+        loaderOptions.setMaxAliasesForCollections(maxAliasesForCollections);
+        loaderOptions.setNestingDepthLimit(nestingDepthLimit);
+        return loaderOptions;
+    }
+}
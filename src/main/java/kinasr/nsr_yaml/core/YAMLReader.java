@@ -42,6 +42,16 @@ public class YAMLReader {
     public YAMLObject get() {
         return new YAMLObject(yamlData);
     }
+
+    /**
+     * Returns the statistics of the YAML data: its node count, depth, scalars by type and estimated retained bytes,
+     * together with its parse time and source size when the data is a cached file. The data is walked on every call.
+     *
+     * @return The statistics of the YAML data.
+     */
+    public TreeStats stats() {
+        return YAMLFileLoader.treeStats(yamlData);
+    }
     
     /**
      * Validates that the key is not null or empty.
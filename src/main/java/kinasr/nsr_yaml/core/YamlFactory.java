@@ -0,0 +1,201 @@
+package kinasr.nsr_yaml.core;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.representer.Representer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.UnaryOperator;
+
+/**
+ * Provides the SnakeYAML instances used to parse YAML files.
+ * <p>
+ * Building a `Yaml` builds its resolver and constructor, so instead of building one per file every thread keeps its
+ * own instance and reuses it for the following files. SnakeYAML instances are not thread-safe, but a thread-confined
+ * one can load any number of documents one after another. A load that starts while the instance of the thread is
+ * still loading, such as a nested load, gets a fresh instance instead.
+ * <p>
+ * The instances are rebuilt when the options change; files already cached are not parsed again. When string
+ * interning is enabled, the instances share one string pool, so equal keys and short values of every loaded file are
+ * kept once.
+ */
+class YamlFactory {
+    private static final ThreadLocal<PooledYaml> POOL = new ThreadLocal<>();
+    private static final StringPool STRINGS = new StringPool();
+    private static volatile YAMLOptions options = new YAMLOptions();
+
+    private YamlFactory() {
+    }
+
+    /**
+     * Sets the options of the instances created from now on.
+     *
+     * @param options the new options
+     */
+    protected static void setOptions(YAMLOptions options) {
+        YamlFactory.options = options.copy();
+    }
+
+    /**
+     * Returns the pool of the strings shared by the loaded trees when string interning is enabled.
+     *
+     * @return the string pool
+     */
+    protected static StringPool strings() {
+        return STRINGS;
+    }
+
+    /**
+     * Returns the function that interns the parsed strings according to the current options.
+     *
+     * @return the pooling function, or the identity function if string interning is disabled
+     */
+    protected static UnaryOperator<String> interner() {
+        return interner(options);
+    }
+
+    /**
+     * Returns a new constructor that follows the current options.
+     *
+     * @return the constructor
+     */
+    protected static NodeConstructor constructor() {
+        return constructor(options);
+    }
+
+    /**
+     * Returns whether the top-level values of the loaded files are parsed only when they are first read.
+     *
+     * @return true if lazy loading is enabled
+     */
+    protected static boolean isLazyLoading() {
+        return options.isLazyLoading();
+    }
+
+    /**
+     * Returns whether the loaded files are parsed section by section, so a reloaded file parses again only the
+     * sections that changed.
+     *
+     * @return true if incremental reload is enabled and lazy loading is not
+     */
+    protected static boolean isIncrementalReload() {
+        return options.isIncrementalReload() && !options.isLazyLoading();
+    }
+
+    /**
+     * Loads the single document read by the reader into the tree kept by the cache: a lazy map when lazy loading is
+     * enabled, otherwise the loaded tree in its compact form if the options keep the trees compact.
+     *
+     * @param reader the reader of the YAML document
+     * @return the tree of the document
+     * @throws IOException if the reader fails
+     */
+    protected static Object loadTree(Reader reader) throws IOException {
+        if (options.isLazyLoading()) {
+            return LazyTreeLoader.load(reader);
+        }
+        return compact(load(reader));
+    }
+
+    /**
+     * Converts a loaded tree into its compact form if the current options keep the trees compact, with its long
+     * sequences off-heap if the options keep them off-heap.
+     *
+     * @param tree the loaded tree
+     * @return the compact tree, or the tree itself if compact trees are disabled
+     */
+    protected static Object compact(Object tree) {
+        var current = options;
+        if (!current.isCompactTrees()) {
+            return tree;
+        }
+        return TreeCompactor.compact(tree,
+                current.isOffHeapSequences() ? current.getMinOffHeapSequenceSize() : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Loads the single document read by the reader using the instance of the current thread.
+     *
+     * @param reader the reader of the YAML document
+     * @return the loaded document
+     */
+    protected static Object load(Reader reader) {
+        var pooled = pooled();
+        if (pooled.loading) {
+            return newYaml().load(reader);
+        }
+
+        pooled.loading = true;
+        try {
+            return pooled.yaml.load(reader);
+        } finally {
+            pooled.loading = false;
+        }
+    }
+
+    /**
+     * Parses the events read by the reader. Parsing does not use the constructor of the instance, so the instance of
+     * the current thread is shared even while it is loading.
+     *
+     * @param reader the reader of the YAML stream
+     * @return the lazy parse events
+     */
+    protected static Iterable<Event> parse(Reader reader) {
+        return pooled().yaml.parse(reader);
+    }
+
+    /**
+     * Creates an instance that is not shared, for loads that outlive the call that starts them, such as lazy
+     * multi-document loads.
+     *
+     * @return a new SnakeYAML instance
+     */
+    protected static Yaml newYaml() {
+        return newYaml(options);
+    }
+
+    private static Yaml newYaml(YAMLOptions options) {
+        var dumperOptions = new DumperOptions();
+        return new Yaml(constructor(options), new Representer(dumperOptions), dumperOptions,
+                options.toLoaderOptions());
+    }
+
+    private static NodeConstructor constructor(YAMLOptions options) {
+        return new NodeConstructor(options.toLoaderOptions(), interner(options));
+    }
+
+    private static UnaryOperator<String> interner(YAMLOptions options) {
+        if (!options.isStringInterning()) {
+            return UnaryOperator.identity();
+        }
+
+        var maxLength = options.getMaxInternedStringLength();
+        return value -> value.length() <= maxLength ? STRINGS.intern(value) : value;
+    }
+
+    private static PooledYaml pooled() {
+        var current = options;
+        var pooled = POOL.get();
+        if (pooled == null || pooled.options != current) {
+            pooled = new PooledYaml(current, newYaml(current));
+            POOL.set(pooled);
+        }
+        return pooled;
+    }
+
+    /**
+     * A thread-confined SnakeYAML instance with the options it was built with.
+     */
+    private static class PooledYaml {
+        private final YAMLOptions options;
+        private final Yaml yaml;
+        private boolean loading;
+
+        private PooledYaml(YAMLOptions options, Yaml yaml) {
+            this.options = options;
+            this.yaml = yaml;
+        }
+    }
+}
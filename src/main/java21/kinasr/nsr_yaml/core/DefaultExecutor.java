@@ -0,0 +1,28 @@
+package kinasr.nsr_yaml.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides the executor of the asynchronous reads when the caller does not give one.
+ * <p>
+ * This is the JDK 21 version of the class, packaged in the multi-release jar. Reading a file mostly blocks on I/O,
+ * so every file is read on its own virtual thread instead of holding a carrier thread of a shared pool.
+ */
+class DefaultExecutor {
+    private static final ExecutorService VIRTUAL_THREADS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("nsr-yaml-reader-", 0).factory());
+
+    private DefaultExecutor() {
+    }
+
+    /**
+     * Returns the default executor of the asynchronous reads.
+     *
+     * @return an executor that starts a virtual thread per task
+     */
+    protected static Executor get() {
+        return VIRTUAL_THREADS;
+    }
+}
@@ -145,6 +145,31 @@ public class ChangeEnvTest {
         assertThat(date).isEqualTo("Default value");
     }
 
+    @Test
+    void changeEnvOnCompactTreeWithoutCopyingIt() {
+        var environments = List.of("A", "B");
+
+        MockedStatic<ConfigHandler> config = Mockito.mockStatic(ConfigHandler.class);
+        config.when(ConfigHandler::getInstance)
+                .thenReturn(configHandler);
+        doReturn(Optional.of(environments))
+                .when(configHandler)
+                .getEnvironments();
+
+        var tree = TreeCompactor.compact(Map.of(
+                "nested", Map.of("value@B", "B value", "value", "Default value"),
+                "other", "Other value"
+        ));
+        var reader = new YAMLReader(tree, new ObjMapper(true));
+        var nested = reader.get("nested.value").asString();
+        var other = reader.get("other").asString();
+        config.close();
+
+        assertThat(nested).isEqualTo("B value");
+        assertThat(other).isEqualTo("Other value");
+        assertThat(((Map<?, ?>) tree).get("nested")).isInstanceOf(CompactMap.class);
+    }
+
     @Test
     void testChangeEnv_withNullMap_returnsOriginalMap() {
         // Arrange
@@ -223,4 +248,23 @@ public class ChangeEnvTest {
         // Assert
         assertThat(result).isEqualTo(map);
     }
+
+    @Test
+    void applyGivenEnvironmentsToEveryLevel() {
+        var tree = Map.of(
+                "value@B", "B value",
+                "value", "default value",
+                "nested", Map.of("value@A", "nested A value", "value@B", "nested B value"),
+                "list", List.of(Map.of("value@C", "listed C value"))
+        );
+
+        var applied = Environments.apply(tree, Environments.prioritize("C", List.of("A", "B", "C")));
+
+        assertThat(applied).isEqualTo(Map.of(
+                "value", "B value",
+                "nested", Map.of("value", "nested A value", "value@B", "nested B value"),
+                "list", List.of(Map.of("value", "listed C value"))
+        ));
+        assertThat(tree.get("value")).isEqualTo("default value");
+    }
 }
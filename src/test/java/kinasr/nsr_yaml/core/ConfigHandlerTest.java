@@ -0,0 +1,46 @@
+package kinasr.nsr_yaml.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigHandlerTest {
+    private static final URL LIBRARY = ConfigHandler.class.getProtectionDomain().getCodeSource().getLocation();
+
+    @Test
+    void resolveNoConfigWhenApplicationShipsNone() throws IOException {
+        try (var loader = new URLClassLoader(new URL[]{LIBRARY}, null)) {
+            assertThat(ConfigHandler.findConfigResource(loader::getResource)).isNull();
+        }
+    }
+
+    @Test
+    void skipConfigBundledWithLibrary() {
+        assertThat(ConfigHandler.findConfigResource(ConfigHandlerTest::libraryResource)).isNull();
+    }
+
+    @Test
+    void resolveApplicationConfig(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("config.yml"), "environments: [local]\n");
+
+        try (var loader = new URLClassLoader(new URL[]{LIBRARY, dir.toUri().toURL()}, null)) {
+            assertThat(ConfigHandler.findConfigResource(loader::getResource)).isEqualTo("config.yml");
+        }
+    }
+
+    private static URL libraryResource(String name) {
+        try {
+            return new URL(LIBRARY, name);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package kinasr.nsr_yaml.core;
+
+import kinasr.nsr_yaml.exception.YAMLFileException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final FileCache cache = new FileCache();
+
+    private Object load(String key) {
+        loads.incrementAndGet();
+        return Map.of("key", key);
+    }
+
+    @Test
+    void serveLoadedKeyFromCache() {
+        var first = cache.get("a", this::load);
+
+        assertThat(cache.get("a", this::load)).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void evictLeastRecentlyUsedWhenMaxEntriesExceeded() {
+        cache.setPolicy(new CachePolicy().setMaxEntries(2));
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("a", this::load);
+        cache.get("c", this::load);
+
+        cache.get("a", this::load);
+        assertThat(loads).hasValue(3);
+        cache.get("b", this::load);
+        assertThat(loads).hasValue(4);
+        assertThat(cache.stats().evictions()).isEqualTo(2);
+    }
+
+    @Test
+    void evictLeastFrequentlyUsedWhenMaxEntriesExceeded() {
+        cache.setPolicy(new CachePolicy().setMaxEntries(2).setEviction(CachePolicy.Eviction.LFU));
+        cache.get("a", this::load);
+        cache.get("a", this::load);
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("b", this::load);
+        cache.get("c", this::load);
+
+        cache.get("a", this::load);
+        assertThat(loads).hasValue(3);
+        assertThat(cache.stats().entries()).isEqualTo(2);
+    }
+
+    @Test
+    void evictWhenMaxRetainedBytesExceeded() {
+        cache.get("a", key -> List.of("x".repeat(1_000)));
+        var retained = cache.stats().retainedBytes();
+        assertThat(retained).isGreaterThan(1_000);
+
+        cache.setPolicy(new CachePolicy().setMaxRetainedBytes(retained + 100));
+        cache.get("b", key -> List.of("y".repeat(1_000)));
+
+        assertThat(cache.stats().entries()).isEqualTo(1);
+        assertThat(cache.stats().evictedBytes()).isEqualTo(retained);
+    }
+
+    @Test
+    void notifyRemovalOfEvictedAndClearedKeysOnly() {
+        var removed = new ArrayList<String>();
+        var notifying = new FileCache(new StringPool(), key -> -1, removed::add);
+        notifying.setPolicy(new CachePolicy().setMaxEntries(1));
+        notifying.get("a", this::load);
+        notifying.get("b", this::load);
+        assertThat(removed).containsExactly("a");
+
+        notifying.reload("b", this::load);
+        assertThat(removed).containsExactly("a");
+
+        notifying.clear();
+        assertThat(removed).containsExactly("a", "b");
+    }
+
+    @Test
+    void reloadExpiredEntry() throws InterruptedException {
+        cache.setPolicy(new CachePolicy().setTimeToLive(Duration.ofMillis(1)));
+        cache.get("a", this::load);
+        Thread.sleep(10);
+        cache.get("a", this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().expirations()).isEqualTo(1);
+    }
+
+    @Test
+    void expireUnreadEntriesWhenLoadingOthers() throws InterruptedException {
+        cache.setPolicy(new CachePolicy().setTimeToLive(Duration.ofMillis(50)));
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        Thread.sleep(100);
+        cache.get("c", this::load);
+
+        assertThat(cache.keys()).containsExactly("c");
+        assertThat(cache.stats().expirations()).isEqualTo(2);
+    }
+
+    @Test
+    void reorderEntriesWhenEvictionChanges() {
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("b", this::load);
+        cache.get("b", this::load);
+        cache.get("a", this::load);
+
+        cache.setPolicy(new CachePolicy().setMaxEntries(1).setEviction(CachePolicy.Eviction.LFU));
+
+        assertThat(cache.keys()).containsExactly("b");
+    }
+
+    @Test
+    void invalidPolicyLimits() {
+        assertThatThrownBy(() -> new CachePolicy().setMaxEntries(0))
+                .isInstanceOf(YAMLFileException.class);
+        assertThatThrownBy(() -> new CachePolicy().setMaxRetainedBytes(-1))
+                .isInstanceOf(YAMLFileException.class);
+        assertThatThrownBy(() -> new CachePolicy().setTimeToLive(Duration.ZERO))
+                .isInstanceOf(YAMLFileException.class);
+        assertThatThrownBy(() -> new CachePolicy().setRetention(null))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void reparseWeaklyRetainedValueOnceReclaimed() throws InterruptedException {
+        cache.setPolicy(new CachePolicy().setRetention(CachePolicy.Retention.WEAK));
+        var held = cache.get("a", key -> new ArrayList<>(List.of(key)));
+        System.gc();
+        assertThat(cache.get("a", this::load)).isSameAs(held);
+        assertThat(loads).hasValue(0);
+
+        held = null;
+        for (int i = 0; i < 20 && cache.stats().reclaims() == 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(cache.stats().reclaims()).isEqualTo(1);
+        assertThat(cache.get("a", this::load)).isEqualTo(Map.of("key", "a"));
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().reparses()).isEqualTo(1);
+    }
+
+    @Test
+    void reportStatsOfDeeplyNestedTree() {
+        Object tree = 1;
+        for (int i = 0; i < 100_000; i++) {
+            tree = List.of(tree);
+        }
+        var nested = tree;
+
+        cache.get("a", key -> nested);
+
+        assertThat(cache.treeStats().get("a").maxDepth()).isEqualTo(100_001);
+    }
+
+    @Test
+    void notCacheValueWhoseStatsFail() {
+        Function<String, Object> loader = key -> {
+            loads.incrementAndGet();
+            return new AbstractList<>() {
+                @Override
+                public Object get(int index) {
+                    throw new IllegalStateException("broken");
+                }
+
+                @Override
+                public int size() {
+                    return 1;
+                }
+            };
+        };
+
+        assertThatThrownBy(() -> cache.get("a", loader)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> cache.get("a", loader)).isInstanceOf(IllegalStateException.class);
+        assertThat(loads).hasValue(2);
+        assertThat(cache.keys()).isEmpty();
+    }
+
+    @Test
+    void shareAsynchronousLoadWithConcurrentCallers() {
+        var pending = new ArrayList<Runnable>();
+        var first = cache.getAsync("a", this::load, pending::add);
+        var second = cache.getAsync("a", this::load, pending::add);
+
+        assertThat(pending).hasSize(1);
+        assertThat(first).isNotDone();
+        pending.get(0).run();
+
+        assertThat(first.join()).isSameAs(second.join()).isSameAs(cache.get("a", this::load));
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().waits()).isEqualTo(1);
+    }
+
+    @Test
+    void notCacheFailedAsynchronousLoad() {
+        var failed = cache.getAsync("a", key -> {
+            throw new YAMLFileException("failed");
+        }, Runnable::run);
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(cache.getAsync("a", this::load, Runnable::run).join()).isEqualTo(Map.of("key", "a"));
+    }
+}
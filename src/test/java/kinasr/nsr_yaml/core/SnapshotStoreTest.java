@@ -0,0 +1,96 @@
+package kinasr.nsr_yaml.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotStoreTest {
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @TempDir
+    private Path dir;
+
+    private Object parse(Reader reader) {
+        parses.incrementAndGet();
+        return YamlFactory.load(reader);
+    }
+
+    @Test
+    void decodeSnapshotOfUnchangedFile() throws IOException {
+        var file = Files.writeString(dir.resolve("data.yaml"),
+                "base: &base {int: 1, long: 5000000000, double: 1.5, big: 123456789012345678901234}\n"
+                        + "other: *base\nset: !!set {a, b}\ndate: 2001-12-14\nnothing: ~\nlist: [a, a, true]\n");
+        var store = new SnapshotStore(dir.resolve("snapshots"));
+
+        var parsed = store.load(file.toString(), this::parse);
+        var decoded = (Map<?, ?>) store.load(file.toString(), this::parse);
+
+        assertThat(parses).hasValue(1);
+        assertThat(store.snapshotPath(file.toString())).exists();
+        assertThat(decoded).isEqualTo(parsed);
+        assertThat(decoded.get("other")).isSameAs(decoded.get("base"));
+    }
+
+    @Test
+    void parseChangedFileAgain() throws IOException {
+        var file = Files.writeString(dir.resolve("data.yaml"), "value: 1");
+        var store = new SnapshotStore(dir.resolve("snapshots"));
+        store.load(file.toString(), this::parse);
+
+        Files.writeString(file, "value: 2");
+
+        assertThat(store.load(file.toString(), this::parse)).isEqualTo(Map.of("value", 2));
+        assertThat(parses).hasValue(2);
+    }
+
+    @Test
+    void ignoreCorruptedSnapshot() throws IOException {
+        var file = Files.writeString(dir.resolve("data.yaml"), "value: 1");
+        var store = new SnapshotStore(dir.resolve("snapshots"));
+        store.load(file.toString(), this::parse);
+
+        Files.write(store.snapshotPath(file.toString()), new byte[]{1, 2, 3});
+
+        assertThat(store.load(file.toString(), this::parse)).isEqualTo(Map.of("value", 1));
+        assertThat(parses).hasValue(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(bytes = {(byte) 0xFF, 0x7F})
+    void ignoreSnapshotWithCorruptedSize(byte sizeByte) throws IOException {
+        var file = Files.writeString(dir.resolve("data.yaml"), "list: [a, b, c]");
+        var store = new SnapshotStore(dir.resolve("snapshots"));
+        store.load(file.toString(), this::parse);
+
+        var snapshotPath = store.snapshotPath(file.toString());
+        var snapshot = Files.readAllBytes(snapshotPath);
+        var list = indexOf(snapshot, new byte[]{10, 0, 0, 0, 3});
+        assertThat(list).isPositive();
+        snapshot[list + 1] = sizeByte;
+        Files.write(snapshotPath, snapshot);
+
+        assertThat(store.load(file.toString(), this::parse)).isEqualTo(Map.of("list", List.of("a", "b", "c")));
+        assertThat(parses).hasValue(2);
+    }
+
+    private static int indexOf(byte[] bytes, byte[] sequence) {
+        for (int i = 0; i <= bytes.length - sequence.length; i++) {
+            if (Arrays.equals(bytes, i, i + sequence.length, sequence, 0, sequence.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
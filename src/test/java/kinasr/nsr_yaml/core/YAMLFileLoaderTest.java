@@ -1,7 +1,25 @@
 package kinasr.nsr_yaml.core;
 
+import kinasr.nsr_yaml.exception.InvalidKeyException;
+import kinasr.nsr_yaml.exception.ParsingException;
 import kinasr.nsr_yaml.exception.YAMLFileException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -32,4 +50,345 @@ class YAMLFileLoaderTest {
         assertThatThrownBy(() -> YAMLFileLoader.load("src/test/resources/test.txt"))
                 .isInstanceOf(YAMLFileException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadSameFileConcurrentlyParsesItOnce(@TempDir Path dir) throws IOException, InterruptedException,
+            ExecutionException {
+        var file = Files.writeString(dir.resolve("concurrent.yaml"), "key: value").toString();
+        var threads = 64;
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+        var before = YAMLFileLoader.stats();
+
+        try {
+            var results = new ArrayList<Future<Object>>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return YAMLFileLoader.load(file);
+                }));
+            }
+            start.countDown();
+
+            var first = results.get(0).get();
+            for (Future<Object> result : results) {
+                assertThat(result.get()).isSameAs(first);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        var after = YAMLFileLoader.stats();
+        assertThat(after.misses() - before.misses()).isEqualTo(1);
+        assertThat((after.hits() - before.hits()) + (after.waits() - before.waits())).isEqualTo(threads - 1);
+    }
+
+    @Test
+    void failedLoadIsNotCached(@TempDir Path dir) throws IOException {
+        var file = dir.resolve("later.yaml");
+
+        assertThatThrownBy(() -> YAMLFileLoader.load(file.toString()))
+                .isInstanceOf(YAMLFileException.class);
+
+        Files.writeString(file, "key: value");
+        assertThat(YAMLFileLoader.load(file.toString()))
+                .isNotNull();
+    }
+
+    @Test
+    void reloadChangedFileWhenHotReloadEnabled(@TempDir Path dir) throws IOException, InterruptedException {
+        var file = Files.writeString(dir.resolve("reload.yaml"), "key: old");
+        YAMLFileLoader.enableHotReload(Duration.ofMillis(50));
+
+        try {
+            var oldData = YAMLFileLoader.load(file.toString());
+            Files.writeString(file, "key: new");
+
+            var deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+            while (YAMLFileLoader.load(file.toString()) == oldData && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertThat(YAMLFileLoader.load(file.toString())).isEqualTo(Map.of("key", "new"));
+            assertThat(oldData).isEqualTo(Map.of("key", "old"));
+        } finally {
+            YAMLFileLoader.disableHotReload();
+        }
+    }
+
+    @Test
+    void loadMappedFile(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("mapped.yaml"), "key: value\nlist: [1, 2]").toString();
+        YAMLFileLoader.setMappedLoadingThreshold(0);
+
+        try {
+            assertThat(YAMLFileLoader.parse(file))
+                    .isEqualTo(Map.of("key", "value", "list", List.of(1, 2)));
+        } finally {
+            YAMLFileLoader.setMappedLoadingThreshold(16L * 1024 * 1024);
+        }
+    }
+
+    @Test
+    void loadFileWithByteOrderMark(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("utf16.yaml"), "\uFEFFkey: välue", StandardCharsets.UTF_16LE);
+
+        assertThat(YAMLFileLoader.parse(file.toString()))
+                .isEqualTo(Map.of("key", "välue"));
+    }
+
+    @Test
+    void loadSameFileThroughDifferentPathsParsesItOnce(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("aliased.yaml"), "key: value");
+        var link = Files.createSymbolicLink(dir.resolve("link.yaml"), file);
+        var misses = YAMLFileLoader.stats().misses();
+
+        var data = YAMLFileLoader.load(file.toString());
+
+        assertThat(YAMLFileLoader.load(dir.resolve(".").resolve("aliased.yaml").toString())).isSameAs(data);
+        assertThat(YAMLFileLoader.load(link.toString())).isSameAs(data);
+        assertThat(YAMLFileLoader.stats().misses()).isEqualTo(misses + 1);
+        assertThat(YAMLFileLoader.cachedFiles().get(file.toRealPath().toString()))
+                .contains(file.toString(), link.toString());
+    }
+
+    @Test
+    void cacheMergedLayersUntilALayerIsEvicted(@TempDir Path dir) throws IOException {
+        var base = Files.writeString(dir.resolve("base.yaml"), "server:\n  host: localhost\n  port: 80").toString();
+        var local = Files.writeString(dir.resolve("local.yaml"), "server:\n  port: 8080").toString();
+        var mergedKey = "layers:" + List.of(YAMLFileLoader.cacheKey(base), YAMLFileLoader.cacheKey(local));
+
+        var merged = YAMLFileLoader.loadLayers(List.of(base, local));
+
+        assertThat(YAMLFileLoader.loadLayers(List.of(base, local))).isSameAs(merged);
+        assertThat(YAMLFileLoader.treeStats().get(mergedKey).retainedBytes()).isPositive();
+        try {
+            YAMLFileLoader.setCachePolicy(new CachePolicy().setMaxEntries(1));
+
+            assertThat(YAMLFileLoader.cachedFiles()).doesNotContainKey(mergedKey);
+        } finally {
+            YAMLFileLoader.setCachePolicy(new CachePolicy());
+        }
+        assertThat(YAMLFileLoader.loadLayers(List.of(base, local))).isNotSameAs(merged).isEqualTo(merged);
+    }
+
+    @Test
+    void followRetargetedSymbolicLink(@TempDir Path dir) throws IOException {
+        var first = Files.createDirectory(dir.resolve("first"));
+        var second = Files.createDirectory(dir.resolve("second"));
+        Files.writeString(first.resolve("app.yaml"), "version: 1");
+        Files.writeString(second.resolve("app.yaml"), "version: 2");
+        var data = Files.createSymbolicLink(dir.resolve("data"), first);
+        var file = data.resolve("app.yaml").toString();
+
+        assertThat(YAMLFileLoader.load(file)).isEqualTo(Map.of("version", 1));
+
+        Files.delete(data);
+        Files.createSymbolicLink(data, second);
+
+        assertThat(YAMLFileLoader.cacheKey(file)).isEqualTo(second.resolve("app.yaml").toRealPath().toString());
+        assertThat(YAMLFileLoader.load(file)).isEqualTo(Map.of("version", 2));
+    }
+
+    @Test
+    void internStringsAcrossLoadedFiles(@TempDir Path dir) throws IOException {
+        var first = Files.writeString(dir.resolve("first.yaml"), "host: example.com\ntimeout: 10");
+        var second = Files.writeString(dir.resolve("second.yaml"), "host: example.com\ntimeout: 20");
+        var savedBytes = YAMLFileLoader.stats().internedBytesSaved();
+
+        YAML.setOptions(new YAMLOptions().setStringInterning(true));
+        try {
+            var firstData = (Map<?, ?>) YAMLFileLoader.load(first.toString());
+            var secondData = (Map<?, ?>) YAMLFileLoader.load(second.toString());
+
+            assertThat(secondData.keySet().iterator().next()).isSameAs(firstData.keySet().iterator().next());
+            assertThat(secondData.get("host")).isSameAs(firstData.get("host"));
+            assertThat(YAMLFileLoader.stats().internedBytesSaved()).isGreaterThan(savedBytes);
+        } finally {
+            YAML.setOptions(new YAMLOptions());
+        }
+    }
+
+    @Test
+    void internOnlyStringScalars(@TempDir Path dir) throws IOException {
+        var content = "number-key: 918273\nboolean-key: true\nfloat-key: 3.75\nstring-key: interned value\n";
+        var first = Files.writeString(dir.resolve("first.yaml"), content);
+        var second = Files.writeString(dir.resolve("second.yaml"), content);
+
+        YAML.setOptions(new YAMLOptions().setStringInterning(true));
+        try {
+            var internedStrings = YAMLFileLoader.stats().internedStrings();
+            YAMLFileLoader.load(first.toString());
+            YAMLFileLoader.load(second.toString());
+
+            assertThat(YAMLFileLoader.stats().internedStrings() - internedStrings).isEqualTo(5);
+        } finally {
+            YAML.setOptions(new YAMLOptions());
+        }
+    }
+
+    @Test
+    void loadCompactImmutableTree(@TempDir Path dir) throws IOException {
+        var content = new StringBuilder("shared: &shared {name: value}\nalias: *shared\n1: number key\n");
+        content.append("ints: [1, 2, 3]\nmixed: [1, two, 3.0]\n");
+        for (int i = 0; i < 20; i++) {
+            content.append("key").append(i).append(": ").append(i).append("\n");
+        }
+        var file = Files.writeString(dir.resolve("compact.yaml"), content);
+
+        var data = (Map<?, ?>) YAMLFileLoader.load(file.toString());
+
+        assertThat(data).isInstanceOf(CompactMap.class);
+        assertThat(data.get("key19")).isEqualTo(19);
+        assertThat(data.get("1")).isEqualTo("number key");
+        assertThat(data.get("missing")).isNull();
+        assertThat(data.get("alias")).isSameAs(data.get("shared"));
+        assertThat(data.get("ints")).isEqualTo(List.of(1, 2, 3));
+        assertThat(data.get("mixed")).isEqualTo(List.of(1, "two", 3.0));
+        assertThatThrownBy(data::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((List<?>) data.get("ints")).clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void keepRecursiveTreeAsParsed() {
+        var recursive = new ArrayList<Object>();
+        recursive.add(recursive);
+
+        assertThat(TreeCompactor.compact(recursive)).isSameAs(recursive);
+    }
+
+    @Test
+    void keepLongSequencesOffHeap(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("tables.yaml"),
+                "ids: [1, 2, 3, 4]\nweights: [0.5, 1.5, 2.5, 3.5]\nnames: [a, bé, '', d]\nshort: [1, 2]\n");
+
+        YAML.setOptions(new YAMLOptions().setOffHeapSequences(true).setMinOffHeapSequenceSize(4));
+        try {
+            var data = (Map<?, ?>) YAMLFileLoader.load(file.toString());
+            var reader = new YAMLReader(data, new ObjMapper(false));
+
+            assertThat(CompactList.isOffHeap((List<?>) data.get("ids"))).isTrue();
+            assertThat(CompactList.isOffHeap((List<?>) data.get("names"))).isTrue();
+            assertThat(CompactList.isOffHeap((List<?>) data.get("short"))).isFalse();
+            assertThat(data.get("names")).isEqualTo(List.of("a", "bé", "", "d"));
+            assertThat(reader.get("ids").asIntArray()).containsExactly(1, 2, 3, 4);
+            assertThat(reader.get("ids").asLongArray()).containsExactly(1, 2, 3, 4);
+            assertThat(reader.get("weights").asDoubleArray()).containsExactly(0.5, 1.5, 2.5, 3.5);
+            assertThat(reader.get("names[1]").asString()).isEqualTo("bé");
+            assertThatThrownBy(() -> ((List<?>) data.get("ids")).get(4))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+            assertThatThrownBy(() -> reader.get("names").asIntArray()).isInstanceOf(ParsingException.class);
+        } finally {
+            YAML.setOptions(new YAMLOptions());
+        }
+    }
+
+    @Test
+    void loadTopLevelValuesLazily(@TempDir Path dir) throws IOException {
+        var content = new StringBuilder("first:\n  host: example.com\n  ports: [80, 443]\nsecond: value\n");
+        for (int i = 0; i < 1000; i++) {
+            content.append("key").append(i).append(": ").append(i).append("\n");
+        }
+        var lazyFile = Files.writeString(dir.resolve("lazy.yaml"), content);
+        var aliasedFile = Files.writeString(dir.resolve("aliased.yaml"), "anchored: &a 1\nalias: *a\n" + content);
+
+        YAML.setOptions(new YAMLOptions().setLazyLoading(true));
+        try {
+            var data = (LazyMap) YAMLFileLoader.load(lazyFile.toString());
+
+            assertThat(data.isParsed(0)).isFalse();
+            assertThat(new YAMLReader(data, new ObjMapper(false)).get("first.ports[1]").asInteger()).isEqualTo(443);
+            assertThat(data.isParsed(0)).isTrue();
+            assertThat(data.isParsed(1)).isFalse();
+            assertThat(data.get("key999")).isEqualTo(999);
+            assertThat(YAMLFileLoader.load(aliasedFile.toString())).isNotInstanceOf(LazyMap.class);
+        } finally {
+            YAML.setOptions(new YAMLOptions());
+        }
+    }
+
+    @Test
+    void reportMissingKeyWithoutParsingLazyValues(@TempDir Path dir) throws IOException {
+        var content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("key").append(i).append(":\n  value: ").append(i).append("\n");
+        }
+        var file = Files.writeString(dir.resolve("lazy.yaml"), content);
+
+        YAML.setOptions(new YAMLOptions().setLazyLoading(true));
+        try {
+            var data = (LazyMap) YAMLFileLoader.load(file.toString());
+
+            assertThatThrownBy(() -> new ObjMapper(false).get(data, "missing"))
+                    .isInstanceOf(InvalidKeyException.class)
+                    .hasMessageStartingWith("This key [missing] does not exist, the available keys are [key0, key1")
+                    .hasMessageEndingWith("... 980 more]");
+            assertThat(data.isParsed(0)).isFalse();
+        } finally {
+            YAML.setOptions(new YAMLOptions());
+        }
+    }
+
+    @Test
+    void loadCompressedFile(@TempDir Path dir) throws IOException {
+        var file = dir.resolve("compressed.yaml.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write("name: compressed\nitems: [1, 2, 3]\n".getBytes(StandardCharsets.UTF_8));
+        }
+        var notYaml = Files.write(dir.resolve("compressed.txt.gz"), new byte[0]);
+
+        var data = (Map<?, ?>) YAMLFileLoader.load(file.toString());
+
+        assertThat(data.get("name")).isEqualTo("compressed");
+        assertThat(data.get("items")).isEqualTo(List.of(1, 2, 3));
+        assertThatThrownBy(() -> YAMLFileLoader.load(notYaml.toString()))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void includeSharedFragments(@TempDir Path dir) throws IOException {
+        Files.createDirectories(dir.resolve("common"));
+        Files.writeString(dir.resolve("common/db.yaml"),
+                "pools:\n  primary:\n    size: 10\nretry:\n  attempts: 3\n  delay: 100\n");
+        var first = Files.writeString(dir.resolve("first.yaml"),
+                "pool: !include common/db.yaml#pools.primary\nretry:\n  $include: common/db.yaml#retry\n  attempts: 5\n");
+        var second = Files.writeString(dir.resolve("second.yaml"), "pool: !include ./common/db.yaml#pools.primary\n");
+
+        var firstData = (Map<?, ?>) YAMLFileLoader.load(first.toString());
+        var secondData = (Map<?, ?>) YAMLFileLoader.load(second.toString());
+
+        assertThat(firstData.get("pool")).isEqualTo(Map.of("size", 10));
+        assertThat(firstData.get("retry")).isEqualTo(Map.of("attempts", 5, "delay", 100));
+        assertThat(secondData.get("pool")).isSameAs(firstData.get("pool"));
+    }
+
+    @Test
+    void failToLoadIncludeCycle(@TempDir Path dir) throws IOException {
+        var first = Files.writeString(dir.resolve("first.yaml"), "second: !include second.yaml\n");
+        Files.writeString(dir.resolve("second.yaml"), "first: !include first.yaml\n");
+
+        assertThatThrownBy(() -> YAMLFileLoader.load(first.toString()))
+                .isInstanceOf(YAMLFileException.class)
+                .hasMessageContaining("Include cycle detected");
+    }
+
+    @Test
+    void reparseOnlyChangedSections(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("catalog.yaml"),
+                "first:\n  name: one\n  tags: [a, b]\nsecond:\n  name: two\n");
+
+        YAML.setOptions(new YAMLOptions().setIncrementalReload(true));
+        try {
+            var previous = (Map<?, ?>) YAMLFileLoader.parse(file.toString());
+            Files.writeString(file, "first:\n  name: one\n  tags: [a, b]\nsecond:\n  name: changed\nthird: 3\n");
+            var reloaded = (Map<?, ?>) IncrementalReloader.parse(file.toString(), previous);
+
+            assertThat(reloaded.get("first")).isSameAs(previous.get("first"));
+            assertThat(reloaded.get("second")).isEqualTo(Map.of("name", "changed"));
+            assertThat(reloaded.get("third")).isEqualTo(3);
+        } finally {
+            YAML.setOptions(new YAMLOptions());
+        }
+    }
+}
@@ -4,19 +4,38 @@ import helper.Gender;
 import helper.Person;
 import helper.TestInterface;
 import helper.TestRecord;
+import kinasr.nsr_yaml.exception.InvalidKeyException;
 import kinasr.nsr_yaml.exception.ParsingException;
 import kinasr.nsr_yaml.exception.YAMLFileException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
-
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.SimpleTimeZone;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -392,4 +411,364 @@ class YAMLTest {
         assertThatThrownBy(() -> YAML.read("empty.yaml"))
                 .isInstanceOf(YAMLFileException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void readResource() {
+        var resourceReader = YAML.readResource("test.yaml");
+
+        assertThat(resourceReader.get("text").asString()).isEqualTo("test");
+        assertThat(YAML.readResource("/test.yaml").get("text-env").asString()).isEqualTo("test local");
+    }
+
+    @Test
+    void readResourceFromJar(@TempDir Path dir) throws IOException {
+        var jar = dir.resolve("resources.jar");
+        try (var out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("config/in-jar.yaml"));
+            out.write("name: in-jar".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+
+        var thread = Thread.currentThread();
+        var originalClassLoader = thread.getContextClassLoader();
+        try (var classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()})) {
+            thread.setContextClassLoader(classLoader);
+            assertThat(YAML.readResource("config/in-jar.yaml").get("name").asString()).isEqualTo("in-jar");
+        } finally {
+            thread.setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    @Test
+    void readNotExistedResource() {
+        assertThatThrownBy(() -> YAML.readResource("not-existed.yaml"))
+                .isInstanceOf(YAMLFileException.class)
+                .hasMessage("Can't find this resource [not-existed.yaml]");
+    }
+
+    @Test
+    void readAsync() {
+        var futureReader = YAML.readAsync("src/test/resources/test.yaml", Executors.newSingleThreadExecutor());
+
+        assertThat(futureReader.join().get("text").asString()).isEqualTo("test");
+    }
+
+    @Test
+    void readAsyncSharesLoadWithConcurrentReads(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("async.yaml"), "name: async").toString();
+        var futures = new ArrayList<CompletableFuture<YAMLReader>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(YAML.readAsync(file));
+        }
+        var misses = YAML.cacheStats().misses();
+
+        futures.forEach(future -> assertThat(future.join().get("name").asString()).isEqualTo("async"));
+        assertThat(YAML.read(file).get("name").asString()).isEqualTo("async");
+        assertThat(YAML.cacheStats().misses()).isEqualTo(misses);
+    }
+
+    @Test
+    void readAsyncEmptyFile() {
+        assertThat(YAML.readAsync("src/test/resources/empty.yaml"))
+                .failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void readAllDocuments() {
+        var names = new ArrayList<String>();
+        for (YAMLReader document : YAML.readAll("src/test/resources/multi.yaml")) {
+            names.add(document.get().asString());
+        }
+
+        assertThat(names)
+                .containsExactly("{name=first, value=1}", "{name=second, value=2}", "[a, b]");
+    }
+
+    @Test
+    void readAllDocumentsAsStream() {
+        try (var documents = YAML.readAll("src/test/resources/multi.yaml").stream()) {
+            assertThat(documents.limit(2).map(document -> document.get("value").asInteger()))
+                    .containsExactly(1, 2);
+        }
+    }
+
+    @Test
+    void readAllDocumentsOnlyOnce() {
+        var documents = YAML.readAll("src/test/resources/multi.yaml");
+        documents.iterator();
+
+        assertThatThrownBy(documents::iterator)
+                .isInstanceOf(YAMLFileException.class);
+        documents.close();
+    }
+
+    @Test
+    void readAllNotExistedFile() {
+        assertThatThrownBy(() -> YAML.readAll("src/test/resources/not-exist.yaml"))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void extractKeys() {
+        var values = YAML.extract("src/test/resources/test.yaml",
+                "text", "person.children[1].name", "text-env", "person");
+
+        assertThat(values.get("text").asString()).isEqualTo("test");
+        assertThat(values.get("person.children[1].name").asString()).isEqualTo("Sara");
+        assertThat(values.get("text-env").asString()).isEqualTo("test local");
+        assertThat(values.get("person").asObject()).isEqualTo(reader.get("person").asObject());
+    }
+
+    @Test
+    void extractKeysThroughAliasesAndMergeKeys(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("anchors.yaml"),
+                "base: &base {x: 1, y: 2}\nother: *base\nmerged:\n  <<: *base\n  y: 3\n");
+
+        var values = YAML.extract(file.toString(), false, "other.x", "merged.x", "merged.y");
+
+        assertThat(values.get("other.x").asInteger()).isEqualTo(1);
+        assertThat(values.get("merged.x").asInteger()).isEqualTo(1);
+        assertThat(values.get("merged.y").asInteger()).isEqualTo(3);
+    }
+
+    @Test
+    void extractStopsOnceKeysAreFound(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("broken.yaml"), "first: 1\nsecond: [not closed");
+
+        assertThat(YAML.extract(file.toString(), false, "first").get("first").asInteger())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void extractNotExistedKey() {
+        assertThatThrownBy(() -> YAML.extract("src/test/resources/test.yaml", "not-existed"))
+                .isInstanceOf(InvalidKeyException.class);
+    }
+
+    @Test
+    void readAllFilesMatchingGlob(@TempDir Path dir) throws IOException {
+        Files.createDirectories(dir.resolve("nested"));
+        var first = Files.writeString(dir.resolve("first.yaml"), "name: first");
+        var second = Files.writeString(dir.resolve("nested/second.yaml"), "name: second");
+        Files.writeString(dir.resolve("ignored.txt"), "name: ignored");
+
+        var files = YAML.readAll(dir, "**.yaml", Executors.newFixedThreadPool(4), 2);
+
+        assertThat(files).containsOnlyKeys(first, second);
+        assertThat(files.get(first).reader().get("name").asString()).isEqualTo("first");
+        assertThat(files.get(second).reader().get("name").asString()).isEqualTo("second");
+        assertThat(files.get(second).loadTime()).isNotNegative();
+    }
+
+    @Test
+    void readAllFilesReportsEveryFailure(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("valid.yaml"), "name: valid");
+        Files.writeString(dir.resolve("empty.yaml"), "");
+        Files.writeString(dir.resolve("invalid.yaml"), "name: [not closed");
+
+        assertThatThrownBy(() -> YAML.readAll(dir, "*.yaml"))
+                .satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+    }
+
+    @Test
+    void readAllFilesOfNotExistedDirectory() {
+        assertThatThrownBy(() -> YAML.readAll(Path.of("src/test/resources/not-existed"), "*.yaml"))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void applyParsingOptions(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("limited.yaml"), "name: longer than the limit").toString();
+
+        YAML.setOptions(new YAMLOptions().setCodePointLimit(10));
+        try {
+            assertThatThrownBy(() -> YAML.read(file))
+                    .isInstanceOf(YAMLException.class)
+                    .hasMessageContaining("exceeds the limit");
+        } finally {
+            YAML.setOptions(new YAMLOptions());
+        }
+
+        assertThat(YAML.read(file).get("name").asString()).isEqualTo("longer than the limit");
+    }
+
+    @Test
+    void rejectInvalidParsingOptions() {
+        assertThatThrownBy(() -> new YAMLOptions().setNestingDepthLimit(0))
+                .isInstanceOf(YAMLFileException.class);
+        assertThatThrownBy(() -> YAML.setOptions(null))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void parseContentFromEverySource() {
+        var content = "name: payload\nsize: 3";
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        var buffer = ByteBuffer.wrap(bytes);
+
+        assertThat(YAML.parse(content).get("name").asString()).isEqualTo("payload");
+        assertThat(YAML.parse(new StringReader(content)).get("size").asInteger()).isEqualTo(3);
+        assertThat(YAML.parse(new ByteArrayInputStream(bytes)).get("name").asString()).isEqualTo("payload");
+        assertThat(YAML.parse(bytes).get("name").asString()).isEqualTo("payload");
+        assertThat(YAML.parse(buffer).get("name").asString()).isEqualTo("payload");
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    void parseContentWithCacheKey() {
+        var first = YAML.parse("name: first", "payload-" + System.nanoTime());
+        var key = "payload-" + System.nanoTime();
+
+        assertThat(YAML.parse("name: cached", key).get("name").asString()).isEqualTo("cached");
+        assertThat(YAML.parse("name: ignored", key).get("name").asString()).isEqualTo("cached");
+        assertThat(first.get("name").asString()).isEqualTo("first");
+        assertThatThrownBy(() -> YAML.parse("name: value", " "))
+                .isInstanceOf(YAMLFileException.class);
+        assertThatThrownBy(() -> YAML.parse(""))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void readPathWithAnyExtension(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("config.txt"), "name: text file");
+
+        assertThat(YAML.read(file).get("name").asString()).isEqualTo("text file");
+        assertThatThrownBy(() -> YAML.read(dir.resolve("not-existed.txt")))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void readPathOfZipFileSystem(@TempDir Path dir) throws IOException {
+        var zip = dir.resolve("config.zip");
+        try (var fileSystem = FileSystems.newFileSystem(zip, Map.of("create", "true"))) {
+            var file = Files.writeString(fileSystem.getPath("app.yml"), "name: zipped");
+
+            assertThat(YAML.read(file).get("name").asString()).isEqualTo("zipped");
+        }
+    }
+
+    @Test
+    void includeFilesFromEveryEntryPoint(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("db.yaml"), "size: 10\n");
+        var file = Files.writeString(dir.resolve("app.yaml"),
+                "name: app\npool: !include db.yaml\nretry:\n  $include: db.yaml\n  attempts: 5\n");
+        var documents = Files.writeString(dir.resolve("documents.yaml"),
+                "pool: !include db.yaml\n---\nretry:\n  $include: db.yaml\n");
+
+        assertThat(YAML.read(file.toString()).get("pool.size").asInteger()).isEqualTo(10);
+        assertThat(YAML.read(file).get("pool.size").asInteger()).isEqualTo(10);
+        assertThat(YAML.readAsync(file.toString()).join().get("pool.size").asInteger()).isEqualTo(10);
+
+        var values = YAML.extract(file.toString(), false, "pool", "retry.attempts", "name");
+        assertThat(values.get("pool").asObject()).isEqualTo(Map.of("size", 10));
+        assertThat(values.get("retry.attempts").asInteger()).isEqualTo(5);
+        assertThat(values.get("name").asString()).isEqualTo("app");
+
+        try (var all = YAML.readAll(documents.toString())) {
+            var readers = all.stream().toList();
+            assertThat(readers.get(0).get("pool.size").asInteger()).isEqualTo(10);
+            assertThat(readers.get(1).get("retry.size").asInteger()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void includeResourcesRelativeToTheirName(@TempDir Path dir) throws IOException {
+        var jar = dir.resolve("includes.jar");
+        try (var out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("config/app.yaml"));
+            out.write("pool: !include common/db.yaml#pools.primary".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("config/common/db.yaml"));
+            out.write("pools:\n  primary:\n    size: 7".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+
+        var thread = Thread.currentThread();
+        var originalClassLoader = thread.getContextClassLoader();
+        try (var classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()})) {
+            thread.setContextClassLoader(classLoader);
+            assertThat(YAML.readResource("config/app.yaml").get("pool.size").asInteger()).isEqualTo(7);
+        } finally {
+            thread.setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    @Test
+    void rejectIncludesWithoutLocation(@TempDir Path dir) throws IOException {
+        assertThatThrownBy(() -> YAML.parse("pool: !include db.yaml"))
+                .isInstanceOf(YAMLFileException.class)
+                .hasMessageContaining("only files and classpath resources can include other files");
+
+        var zip = dir.resolve("includes.zip");
+        try (var fileSystem = FileSystems.newFileSystem(zip, Map.of("create", "true"))) {
+            var file = Files.writeString(fileSystem.getPath("app.yml"), "pool:\n  $include: db.yaml");
+
+            assertThatThrownBy(() -> YAML.read(file))
+                    .isInstanceOf(YAMLFileException.class)
+                    .hasMessageContaining("can't be resolved");
+        }
+    }
+
+    @Test
+    void readLayeredFiles(@TempDir Path dir) throws IOException {
+        var base = Files.writeString(dir.resolve("app.yaml"),
+                "server:\n  host: localhost\n  port: 8080\nfeatures: [a, b]\nlogging:\n  level: info\n").toString();
+        var profile = Files.writeString(dir.resolve("app-prod.yaml"),
+                "server:\n  host: prod.example.com\nfeatures: [c]\n").toString();
+        var local = Files.writeString(dir.resolve("app-local.yaml"), "").toString();
+        var layers = List.of(base, profile, local);
+
+        var merged = YAML.read(layers);
+
+        assertThat(merged.get("server.host").asString()).isEqualTo("prod.example.com");
+        assertThat(merged.get("server.port").asInteger()).isEqualTo(8080);
+        assertThat(merged.get("features").asList(String.class)).isEqualTo(List.of("c"));
+        assertThat(merged.get("logging").asObject()).isSameAs(YAML.read(base).get("logging").asObject());
+        assertThat(YAML.read(layers).get().asObject()).isSameAs(merged.get().asObject());
+        assertThatThrownBy(() -> YAML.read(List.of(local)))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void preloadManifest(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("app.yaml"),
+                "owner:\n  name: Khaled\n  age: 30\nlimits:\n  max: 5\n").toString();
+        var missing = dir.resolve("missing.yaml").toString();
+        var manifest = new PreloadManifest()
+                .addKey(file, "limits.max")
+                .addBinding(file, "owner", Person.class)
+                .addKey(file, "nope")
+                .addFile(missing);
+
+        var report = YAML.preload(manifest);
+
+        assertThat(report.items()).extracting(PreloadItem::filePath, PreloadItem::key)
+                .containsExactly(tuple(file, null), tuple(file, "limits.max"), tuple(file, "owner"),
+                        tuple(file, "nope"), tuple(missing, null));
+        assertThat(report.failures()).extracting(PreloadItem::key).containsExactly("nope", null);
+        assertThat(report.failures().get(1).failure()).isInstanceOf(YAMLFileException.class);
+        assertThat(YAML.cachedFiles()).containsKey(dir.toRealPath().resolve("app.yaml").toString());
+        assertThatThrownBy(() -> YAML.preload(null))
+                .isInstanceOf(YAMLFileException.class);
+    }
+
+    @Test
+    void reportTreeStatsOfCachedFiles(@TempDir Path dir) throws IOException {
+        var file = Files.writeString(dir.resolve("stats.yaml"),
+                "name: app\nports: [80, 443]\nlimits:\n  ratio: 0.5\n  enabled: true\n  owner: ~\n");
+
+        var reader = YAML.read(file.toString());
+        var stats = YAML.treeStats().get(file.toRealPath().toString());
+
+        assertThat(stats.nodes()).isEqualTo(9);
+        assertThat(stats.maxDepth()).isEqualTo(3);
+        assertThat(stats.scalarsByType())
+                .isEqualTo(Map.of("String", 1L, "Integer", 2L, "Double", 1L, "Boolean", 1L, "null", 1L));
+        assertThat(stats.retainedBytes()).isPositive();
+        assertThat(stats.sourceBytes()).isEqualTo(Files.size(file));
+        assertThat(reader.stats()).isEqualTo(stats);
+        assertThat(new YAMLReader(Map.of("key", "value"), new ObjMapper(true)).stats().sourceBytes()).isEqualTo(-1);
+    }
+}